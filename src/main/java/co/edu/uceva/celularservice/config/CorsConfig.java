@@ -26,6 +26,9 @@ public class CorsConfig {
         // Permitir todos los headers
         config.addAllowedHeader("*");
         
+        // Cursor de la siguiente página en los listados paginados (legible desde el navegador)
+        config.addExposedHeader("X-Next-Cursor");
+        
         // Permitir todos los métodos HTTP
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         
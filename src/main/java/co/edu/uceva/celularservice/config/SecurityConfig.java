@@ -1,8 +1,14 @@
 package co.edu.uceva.celularservice.config;
 
+import co.edu.uceva.celularservice.security.BoundedPasswordEncoder;
 import co.edu.uceva.celularservice.security.CustomUserDetailsService;
 import co.edu.uceva.celularservice.security.JwtAuthenticationFilter;
+import co.edu.uceva.celularservice.security.LoginThrottleFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,7 +18,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,15 +27,48 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    // Endpoints públicos (sin autenticación); JwtAuthenticationFilter no procesa el token en estas rutas
+    public static final String[] RUTAS_PUBLICAS = {
+            "/api/v1/auth/login",
+            "/api/v1/auth/register",
+            "/api/v1/auth/refresh",
+            "/api/v1/usuario-service/usuario", // Permitir registro
+            "/actuator/health/**", // Health checks para Railway
+            "/actuator/info" // Info endpoint
+    };
+
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
-    @Bean
+    @Autowired
+    private LoginThrottleFilter loginThrottleFilter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Costo BCrypt; si cambia, los hashes se regeneran en el siguiente login exitoso
+    @Value("${app.security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    // Hilos dedicados al hashing (0 = número de procesadores)
+    @Value("${app.security.hashing.threads:0}")
+    private int hashingThreads;
+
+    // Operaciones de hashing que pueden esperar antes de rechazar con 503
+    @Value("${app.security.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.hashing.retry-after:2}")
+    private long hashingRetryAfterSeconds;
+
+    @Bean(destroyMethod = "shutdown")
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int hilos = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, hilos, hashingQueueCapacity,
+                hashingRetryAfterSeconds, meterRegistry);
     }
 
     @Bean
@@ -38,6 +76,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -46,6 +85,22 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    // Los filtros son @Component: sin esto Spring Boot también los registra en el contenedor
+    // y cada petición los atravesaría una segunda vez fuera de la cadena de seguridad
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration() {
+        FilterRegistrationBean<JwtAuthenticationFilter> registro = new FilterRegistrationBean<>(jwtAuthenticationFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
+    @Bean
+    public FilterRegistrationBean<LoginThrottleFilter> loginThrottleFilterRegistration() {
+        FilterRegistrationBean<LoginThrottleFilter> registro = new FilterRegistrationBean<>(loginThrottleFilter);
+        registro.setEnabled(false);
+        return registro;
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -54,10 +109,9 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 // Endpoints públicos (sin autenticación)
-                .requestMatchers("/api/v1/auth/**").permitAll()
-                .requestMatchers("/api/v1/usuario-service/usuario").permitAll() // Permitir registro
-                .requestMatchers("/actuator/health/**").permitAll() // Health checks para Railway
-                .requestMatchers("/actuator/info").permitAll() // Info endpoint
+                .requestMatchers(RUTAS_PUBLICAS).permitAll()
+                // Segundo despacho de las respuestas asíncronas (exportación): la petición original ya se autorizó
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 
                 // Todos los demás endpoints requieren autenticación
                 .anyRequest().authenticated()
@@ -65,6 +119,8 @@ public class SecurityConfig {
 
         http.authenticationProvider(authenticationProvider());
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Los intentos de login/registro se limitan antes de cualquier consulta o hashing
+        http.addFilterBefore(loginThrottleFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
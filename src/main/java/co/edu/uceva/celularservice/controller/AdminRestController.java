@@ -0,0 +1,66 @@
+package co.edu.uceva.celularservice.controller;
+
+import co.edu.uceva.celularservice.model.service.ResumenUsuarioService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+@CrossOrigin(origins = "*", methods = {RequestMethod.GET, RequestMethod.POST})
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminRestController {
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
+    /**
+     * Recalcula la tabla resumen_usuario completa desde las tablas de ingresos y gastos
+     * @return cantidad de resúmenes actualizados, creados y eliminados
+     */
+    @PostMapping("/resumenes/reconstruir")
+    public ResponseEntity<?> reconstruirResumenes() {
+        try {
+            return ResponseEntity.ok(resumenUsuarioService.reconstruir());
+        } catch (Exception e) {
+            return error("Error al reconstruir los resúmenes", e);
+        }
+    }
+
+    /**
+     * Compara los resúmenes guardados con los totales reales sin modificar nada
+     * @return usuarios revisados, inconsistentes y detalle de los campos que no coinciden
+     */
+    @GetMapping("/resumenes/verificar")
+    public ResponseEntity<?> verificarResumenes() {
+        try {
+            return ResponseEntity.ok(resumenUsuarioService.verificar(false));
+        } catch (Exception e) {
+            return error("Error al verificar los resúmenes", e);
+        }
+    }
+
+    /**
+     * Verifica los resúmenes y recalcula solo los de los usuarios inconsistentes
+     */
+    @PostMapping("/resumenes/reparar")
+    public ResponseEntity<?> repararResumenes() {
+        try {
+            return ResponseEntity.ok(resumenUsuarioService.verificar(true));
+        } catch (Exception e) {
+            return error("Error al reparar los resúmenes", e);
+        }
+    }
+
+    private ResponseEntity<Map<String, String>> error(String mensaje, Exception e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", mensaje);
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+    }
+}
@@ -2,11 +2,16 @@ package co.edu.uceva.celularservice.controller;
 
 import co.edu.uceva.celularservice.model.dto.AuthResponse;
 import co.edu.uceva.celularservice.model.dto.LoginRequest;
+import co.edu.uceva.celularservice.model.dto.RefreshTokenRequest;
 import co.edu.uceva.celularservice.model.dto.RegisterRequest;
 import co.edu.uceva.celularservice.model.service.AuthService;
+import co.edu.uceva.celularservice.security.PasswordHashingRejectedException;
+import co.edu.uceva.celularservice.security.UsuarioPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
@@ -31,6 +36,10 @@ public class AuthController {
             AuthResponse response = authService.login(loginRequest);
             return ResponseEntity.ok(response);
         } catch (Exception e) {
+            PasswordHashingRejectedException saturado = buscarRechazo(e);
+            if (saturado != null) {
+                return servicioSaturado(saturado);
+            }
             Map<String, String> error = new HashMap<>();
             error.put("error", "Credenciales inválidas");
             error.put("message", e.getMessage());
@@ -49,6 +58,10 @@ public class AuthController {
             AuthResponse response = authService.register(registerRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (Exception e) {
+            PasswordHashingRejectedException saturado = buscarRechazo(e);
+            if (saturado != null) {
+                return servicioSaturado(saturado);
+            }
             Map<String, String> error = new HashMap<>();
             error.put("error", "Error en el registro");
             error.put("message", e.getMessage());
@@ -56,6 +69,66 @@ public class AuthController {
         }
     }
 
+    /**
+     * Endpoint para renovar el access token sin volver a enviar la contraseña
+     * @param refreshRequest contiene el refresh token recibido en el login, registro o último refresh
+     * @return nuevo JWT y nuevo refresh token (el anterior queda invalidado)
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest refreshRequest) {
+        try {
+            AuthResponse response = authService.refresh(refreshRequest);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Refresh token inválido");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        }
+    }
+
+    /**
+     * Endpoint para cerrar la sesión actual. Requiere token JWT válido
+     * @param refreshRequest opcional; si trae el refresh token, también se revoca esa sesión
+     * @return confirmación; el token presentado deja de ser válido de inmediato
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                    @RequestBody(required = false) RefreshTokenRequest refreshRequest,
+                                    @AuthenticationPrincipal UsuarioPrincipal principal) {
+        try {
+            String jwt = authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization;
+            authService.logout(jwt, refreshRequest != null ? refreshRequest.getRefreshToken() : null, principal);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Sesión cerrada");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al cerrar la sesión");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    /**
+     * Endpoint para cerrar todas las sesiones del usuario (todos los dispositivos). Requiere token JWT válido
+     * @return confirmación; todos los tokens y refresh tokens emitidos hasta ahora dejan de ser válidos
+     */
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutAll(@AuthenticationPrincipal UsuarioPrincipal principal) {
+        try {
+            authService.logoutAll(principal);
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Todas las sesiones fueron cerradas");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al cerrar las sesiones");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     /**
      * Endpoint de prueba para verificar autenticación
      * Requiere token JWT válido
@@ -67,4 +140,25 @@ public class AuthController {
         response.put("status", "authenticated");
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * El rechazo puede llegar envuelto por el AuthenticationManager
+     */
+    private PasswordHashingRejectedException buscarRechazo(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof PasswordHashingRejectedException rechazo) {
+                return rechazo;
+            }
+        }
+        return null;
+    }
+
+    private ResponseEntity<Map<String, String>> servicioSaturado(PasswordHashingRejectedException e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Servicio saturado");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(error);
+    }
 }
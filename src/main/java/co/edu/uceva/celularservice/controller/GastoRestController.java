@@ -1,15 +1,21 @@
 package co.edu.uceva.celularservice.controller;
 
+import co.edu.uceva.celularservice.model.dto.GastoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Gasto;
 import co.edu.uceva.celularservice.model.entities.Usuario;
 import co.edu.uceva.celularservice.model.service.GastoServiceImpl;
+import co.edu.uceva.celularservice.model.service.ImportacionService;
 import co.edu.uceva.celularservice.model.service.UsuarioServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/usuario-service")
@@ -22,12 +28,21 @@ public class GastoRestController {
     @Autowired
     private UsuarioServiceImpl usuarioService;
 
+    @Autowired
+    private ImportacionService importacionService;
+
     /**
-     * Listar todos los gastos
+     * Listar los gastos por páginas (cursor por id)
+     * GET /api/v1/usuario-service/gastos?after=120&limit=50
+     *
+     * - after: id del último gasto recibido (se omite en la primera página)
+     * - limit: tamaño de página (por defecto 50, máximo 200)
+     * El header X-Next-Cursor trae el valor de "after" para la página siguiente.
      */
     @GetMapping("/gastos")
-    public List<Gasto> listar() {
-        return this.gastoService.listar();
+    public ResponseEntity<List<GastoResumen>> listar(@RequestParam(required = false) Long after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(this.gastoService.listarPagina(after, Pagina.limite(limit)));
     }
 
     /**
@@ -65,6 +80,40 @@ public class GastoRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoGasto);
     }
 
+    /**
+     * Importar varios gastos de un usuario en una sola petición (JSON: mismo formato que al crear uno)
+     * POST /api/v1/usuario-service/usuarios/{usuarioId}/gastos/importar
+     *
+     * Las filas inválidas se reportan y no impiden insertar las demás.
+     */
+    @PostMapping(value = "/usuarios/{usuarioId}/gastos/importar", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarGastos(@PathVariable Long usuarioId, @RequestBody List<Gasto> gastos) {
+        if (this.usuarioService.findById(usuarioId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(this.importacionService.importarGastos(usuarioId, gastos));
+        } catch (Exception e) {
+            return errorImportacion(e);
+        }
+    }
+
+    /**
+     * Importar gastos desde un CSV con cabecera nombre,valor,estado[,fecha]
+     * POST /api/v1/usuario-service/usuarios/{usuarioId}/gastos/importar (Content-Type: text/csv)
+     */
+    @PostMapping(value = "/usuarios/{usuarioId}/gastos/importar", consumes = "text/csv")
+    public ResponseEntity<?> importarGastosCsv(@PathVariable Long usuarioId, @RequestBody String csv) {
+        if (this.usuarioService.findById(usuarioId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(this.importacionService.importarGastosCsv(usuarioId, csv));
+        } catch (Exception e) {
+            return errorImportacion(e);
+        }
+    }
+
     /**
      * Actualizar un gasto existente
      */
@@ -100,4 +149,11 @@ public class GastoRestController {
     public List<Gasto> listarGastosPorEstado(@PathVariable String estado) {
         return this.gastoService.findByEstadoGasto(estado);
     }
+
+    private ResponseEntity<Map<String, String>> errorImportacion(Exception e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Error al importar los gastos");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
 }
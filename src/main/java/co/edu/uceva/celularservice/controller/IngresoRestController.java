@@ -1,15 +1,21 @@
 package co.edu.uceva.celularservice.controller;
 
+import co.edu.uceva.celularservice.model.dto.IngresoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Ingreso;
 import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.service.ImportacionService;
 import co.edu.uceva.celularservice.model.service.IngresoServiceImpl;
 import co.edu.uceva.celularservice.model.service.UsuarioServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/usuario-service")
@@ -22,12 +28,21 @@ public class IngresoRestController {
     @Autowired
     private UsuarioServiceImpl usuarioService;
 
+    @Autowired
+    private ImportacionService importacionService;
+
     /**
-     * Listar todos los ingresos
+     * Listar los ingresos por páginas (cursor por id)
+     * GET /api/v1/usuario-service/ingresos?after=120&limit=50
+     *
+     * - after: id del último ingreso recibido (se omite en la primera página)
+     * - limit: tamaño de página (por defecto 50, máximo 200)
+     * El header X-Next-Cursor trae el valor de "after" para la página siguiente.
      */
     @GetMapping("/ingresos")
-    public List<Ingreso> listar() {
-        return this.ingresoService.listar();
+    public ResponseEntity<List<IngresoResumen>> listar(@RequestParam(required = false) Long after,
+                                                 @RequestParam(required = false) Integer limit) {
+        return Paginacion.respuesta(this.ingresoService.listarPagina(after, Pagina.limite(limit)));
     }
 
     /**
@@ -65,6 +80,40 @@ public class IngresoRestController {
         return ResponseEntity.status(HttpStatus.CREATED).body(nuevoIngreso);
     }
 
+    /**
+     * Importar varios ingresos de un usuario en una sola petición (JSON: mismo formato que al crear uno)
+     * POST /api/v1/usuario-service/usuarios/{usuarioId}/ingresos/importar
+     *
+     * Las filas inválidas se reportan y no impiden insertar las demás.
+     */
+    @PostMapping(value = "/usuarios/{usuarioId}/ingresos/importar", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importarIngresos(@PathVariable Long usuarioId, @RequestBody List<Ingreso> ingresos) {
+        if (this.usuarioService.findById(usuarioId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(this.importacionService.importarIngresos(usuarioId, ingresos));
+        } catch (Exception e) {
+            return errorImportacion(e);
+        }
+    }
+
+    /**
+     * Importar ingresos desde un CSV con cabecera nombre,valor,estado[,fecha]
+     * POST /api/v1/usuario-service/usuarios/{usuarioId}/ingresos/importar (Content-Type: text/csv)
+     */
+    @PostMapping(value = "/usuarios/{usuarioId}/ingresos/importar", consumes = "text/csv")
+    public ResponseEntity<?> importarIngresosCsv(@PathVariable Long usuarioId, @RequestBody String csv) {
+        if (this.usuarioService.findById(usuarioId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(this.importacionService.importarIngresosCsv(usuarioId, csv));
+        } catch (Exception e) {
+            return errorImportacion(e);
+        }
+    }
+
     /**
      * Actualizar un ingreso existente
      */
@@ -100,4 +149,11 @@ public class IngresoRestController {
     public List<Ingreso> listarIngresosPorEstado(@PathVariable String estado) {
         return this.ingresoService.findByEstadoIngreso(estado);
     }
+
+    private ResponseEntity<Map<String, String>> errorImportacion(Exception e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Error al importar los ingresos");
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
 }
@@ -2,6 +2,7 @@ package co.edu.uceva.celularservice.controller;
 
 import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
 import co.edu.uceva.celularservice.model.dto.MetaAhorroResponse;
+import co.edu.uceva.celularservice.model.dto.PagarCuotasRequest;
 import co.edu.uceva.celularservice.model.entities.MetaAhorro;
 import co.edu.uceva.celularservice.model.service.MetaAhorroServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -61,6 +62,16 @@ public class MetaAhorroRestController {
         return ResponseEntity.ok(metas);
     }
 
+    /**
+     * Obtener los detalles completos de todas las metas de un usuario en una sola llamada
+     * GET /api/v1/usuario-service/usuarios/{usuarioId}/metas-ahorro/detalles
+     */
+    @GetMapping("/usuarios/{usuarioId}/metas-ahorro/detalles")
+    public ResponseEntity<List<MetaAhorroResponse>> obtenerDetallesMetasPorUsuario(@PathVariable Long usuarioId) {
+        List<MetaAhorroResponse> detalles = metaAhorroService.obtenerDetallesMetasPorUsuario(usuarioId);
+        return ResponseEntity.ok(detalles);
+    }
+
     /**
      * Obtener detalles completos de una meta de ahorro
      * GET /api/v1/usuario-service/metas-ahorro/{metaId}
@@ -103,6 +114,60 @@ public class MetaAhorroRestController {
         }
     }
 
+    /**
+     * Pagar una cuota de una meta de ahorro por su número dentro de la meta
+     * (en las metas con cuotas virtuales las cuotas sin pagar no tienen id)
+     * POST /api/v1/usuario-service/metas-ahorro/{metaId}/cuotas/numero/{numeroCuota}/pagar
+     */
+    @PostMapping("/metas-ahorro/{metaId}/cuotas/numero/{numeroCuota}/pagar")
+    public ResponseEntity<?> pagarCuotaPorNumero(
+            @PathVariable Long metaId,
+            @PathVariable Integer numeroCuota) {
+        try {
+            MetaAhorro meta = metaAhorroService.pagarCuotaPorNumero(metaId, numeroCuota);
+            MetaAhorroResponse response = metaAhorroService.obtenerDetallesMeta(meta.getId());
+            
+            Map<String, Object> resultado = new HashMap<>();
+            resultado.put("message", "Cuota pagada exitosamente");
+            resultado.put("meta", response);
+            
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al pagar la cuota");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
+    /**
+     * Pagar varias cuotas de una meta de ahorro en una sola transacción
+     * POST /api/v1/usuario-service/metas-ahorro/{metaId}/cuotas/pagar
+     * 
+     * Cuerpo: {"cuotaIds": [31, 32]}, {"numerosCuota": [3, 4, 5]} o {"monto": 150000}
+     * (paga las primeras cuotas pendientes que cubre completas)
+     */
+    @PostMapping("/metas-ahorro/{metaId}/cuotas/pagar")
+    public ResponseEntity<?> pagarCuotas(
+            @PathVariable Long metaId,
+            @RequestBody PagarCuotasRequest request) {
+        try {
+            MetaAhorro meta = metaAhorroService.pagarCuotas(metaId, request);
+            MetaAhorroResponse response = metaAhorroService.obtenerDetallesMeta(meta.getId());
+            
+            Map<String, Object> resultado = new HashMap<>();
+            resultado.put("message", "Cuotas pagadas exitosamente");
+            resultado.put("meta", response);
+            
+            return ResponseEntity.ok(resultado);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al pagar las cuotas");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     /**
      * Cancelar una meta de ahorro
      * DELETE /api/v1/usuario-service/metas-ahorro/{metaId}
@@ -156,14 +221,14 @@ public class MetaAhorroRestController {
     }
 
     /**
-     * Actualizar estados de cuotas vencidas
+     * Actualizar estados de cuotas vencidas (también corre sola todos los días, ver app.cuotas.vencidas.cron)
      * POST /api/v1/usuario-service/metas-ahorro/actualizar-vencidas
      */
     @PostMapping("/metas-ahorro/actualizar-vencidas")
-    public ResponseEntity<Map<String, String>> actualizarCuotasVencidas() {
-        metaAhorroService.actualizarCuotasVencidas();
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> actualizarCuotasVencidas() {
+        Map<String, Object> response = new HashMap<>();
         response.put("message", "Cuotas vencidas actualizadas");
+        response.putAll(metaAhorroService.actualizarCuotasVencidas());
         return ResponseEntity.ok(response);
     }
 }
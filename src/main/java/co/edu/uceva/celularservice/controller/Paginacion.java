@@ -0,0 +1,27 @@
+package co.edu.uceva.celularservice.controller;
+
+import co.edu.uceva.celularservice.model.dto.Pagina;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Respuesta de los listados paginados por cursor: el cuerpo sigue siendo la lista de elementos y
+ * el cursor de la siguiente página viaja en el header X-Next-Cursor (ausente en la última página).
+ * Para seguir, se repite la petición con ?after=&lt;X-Next-Cursor&gt;.
+ */
+final class Paginacion {
+
+    static final String HEADER_SIGUIENTE = "X-Next-Cursor";
+
+    private Paginacion() {
+    }
+
+    static <T> ResponseEntity<List<T>> respuesta(Pagina<T> pagina) {
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (pagina.getSiguiente() != null) {
+            respuesta.header(HEADER_SIGUIENTE, String.valueOf(pagina.getSiguiente()));
+        }
+        return respuesta.body(pagina.getElementos());
+    }
+}
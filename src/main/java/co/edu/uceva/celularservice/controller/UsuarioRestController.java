@@ -1,18 +1,27 @@
 package co.edu.uceva.celularservice.controller;
 
 
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.dto.ResumenFinanciero;
-import co.edu.uceva.celularservice.model.entities.Gasto;
-import co.edu.uceva.celularservice.model.entities.Ingreso;
 import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.service.ExportacionService;
 import co.edu.uceva.celularservice.model.service.UsuarioServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.YearMonth;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/usuario-service")
@@ -23,15 +32,34 @@ public class UsuarioRestController {
     @Autowired
     private UsuarioServiceImpl usuarioService;
 
+    @Autowired
+    private ExportacionService exportacionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * Este metodo se encarga de retornar una lista de todos los usuarios
-     * INCLUYE los ingresos y gastos de cada usuario
+     * Este metodo se encarga de retornar los usuarios por páginas (cursor por id), sin contraseña
+     * GET /api/v1/usuario-service/usuarios?after=120&limit=50&expand=ingresos,gastos
      *
-     * @return retorna una lista de todos los usuarios con sus ingresos y gastos
+     * @param after id del último usuario recibido (se omite en la primera página)
+     * @param limit tamaño de página (por defecto 50, máximo 200)
+     * @param expand colecciones a incluir: ingresos, gastos, metasAhorro (por defecto ninguna)
+     * @return la página de usuarios; el header X-Next-Cursor trae el "after" de la página siguiente
      */
     @GetMapping("/usuarios")
-    public List<Usuario> listar() {
-        return this.usuarioService.listar();
+    public ResponseEntity<?> listar(@RequestParam(required = false) Long after,
+                                    @RequestParam(required = false) Integer limit,
+                                    @RequestParam(required = false) Set<String> expand) {
+        try {
+            return Paginacion.respuesta(this.usuarioService.listarPagina(
+                    after, Pagina.limite(limit), expand != null ? expand : Set.of()));
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al listar usuarios");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
     }
 
     /**
@@ -58,7 +86,8 @@ public class UsuarioRestController {
      * @return retorna el objeto de tipo Usuario guardado con su id asignado
      */
     @PostMapping("/usuario")
-    public Usuario guardarUsuario(@RequestBody Usuario usuario) {
+    public Usuario guardarUsuario(@RequestBody Usuario usuario, Authentication authentication) {
+        restringirRol(usuario, authentication);
         return this.usuarioService.save(usuario);
     }
 
@@ -69,10 +98,24 @@ public class UsuarioRestController {
      * @return retorna el objeto de tipo Usuario actualizado
      */
     @PutMapping("/usuario")
-    public Usuario actualizarUsuario(@RequestBody Usuario usuario) {
+    public Usuario actualizarUsuario(@RequestBody Usuario usuario, Authentication authentication) {
+        restringirRol(usuario, authentication);
         return this.usuarioService.save(usuario);
     }
 
+    /**
+     * Solo un ADMIN puede asignar o cambiar roles: para los demás se conserva el rol actual (USER si es nuevo)
+     */
+    private void restringirRol(Usuario usuario, Authentication authentication) {
+        boolean admin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (admin) {
+            return;
+        }
+        Usuario actual = usuario.getId() != null ? this.usuarioService.findById(usuario.getId()) : null;
+        usuario.setRol(actual != null ? actual.getRol() : "USER");
+    }
+
     /**
      * Este metodo elimina un usuario por su id
      * También eliminará automáticamente todos sus ingresos y gastos (cascade)
@@ -94,13 +137,12 @@ public class UsuarioRestController {
      */
     @GetMapping("/usuarios/{id}/total-ingresos")
     public ResponseEntity<Map<String, Double>> obtenerTotalIngresos(@PathVariable Long id) {
-        Usuario usuario = this.usuarioService.findById(id);
-        if (usuario == null) {
+        ResumenFinanciero resumen = this.usuarioService.obtenerResumenFinanciero(id).orElse(null);
+        if (resumen == null) {
             return ResponseEntity.notFound().build();
         }
-        Double total = this.usuarioService.calcularTotalIngresos(id);
         Map<String, Double> response = new HashMap<>();
-        response.put("totalIngresos", total);
+        response.put("totalIngresos", resumen.getTotalIngresos());
         return ResponseEntity.ok(response);
     }
 
@@ -109,13 +151,12 @@ public class UsuarioRestController {
      */
     @GetMapping("/usuarios/{id}/total-gastos")
     public ResponseEntity<Map<String, Double>> obtenerTotalGastos(@PathVariable Long id) {
-        Usuario usuario = this.usuarioService.findById(id);
-        if (usuario == null) {
+        ResumenFinanciero resumen = this.usuarioService.obtenerResumenFinanciero(id).orElse(null);
+        if (resumen == null) {
             return ResponseEntity.notFound().build();
         }
-        Double total = this.usuarioService.calcularTotalGastos(id);
         Map<String, Double> response = new HashMap<>();
-        response.put("totalGastos", total);
+        response.put("totalGastos", resumen.getTotalGastos());
         return ResponseEntity.ok(response);
     }
 
@@ -124,13 +165,12 @@ public class UsuarioRestController {
      */
     @GetMapping("/usuarios/{id}/balance")
     public ResponseEntity<Map<String, Double>> obtenerBalance(@PathVariable Long id) {
-        Usuario usuario = this.usuarioService.findById(id);
-        if (usuario == null) {
+        ResumenFinanciero resumen = this.usuarioService.obtenerResumenFinanciero(id).orElse(null);
+        if (resumen == null) {
             return ResponseEntity.notFound().build();
         }
-        Double balance = this.usuarioService.calcularBalance(id);
         Map<String, Double> response = new HashMap<>();
-        response.put("balance", balance);
+        response.put("balance", resumen.getBalance());
         return ResponseEntity.ok(response);
     }
 
@@ -140,51 +180,70 @@ public class UsuarioRestController {
      */
     @GetMapping("/usuarios/{id}/resumen-financiero")
     public ResponseEntity<ResumenFinanciero> obtenerResumenFinanciero(@PathVariable Long id) {
-        Usuario usuario = this.usuarioService.findById(id);
-        if (usuario == null) {
-            return ResponseEntity.notFound().build();
+        return this.usuarioService.obtenerResumenFinanciero(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Obtener ingresos, gastos y balance mes a mes (se leen solo los resúmenes mensuales)
+     * GET /api/v1/usuario-service/usuarios/{id}/serie-mensual?desde=2025-01&hasta=2025-12
+     *
+     * Parámetros opcionales (formato yyyy-MM):
+     * - desde: primer mes (por defecto, 11 meses antes de "hasta")
+     * - hasta: último mes (por defecto, el mes actual)
+     */
+    @GetMapping("/usuarios/{id}/serie-mensual")
+    public ResponseEntity<?> obtenerSerieMensual(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth hasta) {
+        try {
+            YearMonth fin = hasta != null ? hasta : YearMonth.now();
+            YearMonth inicio = desde != null ? desde : fin.minusMonths(11);
+            return this.usuarioService.obtenerSerieMensual(id, inicio, fin)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al obtener la serie mensual");
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         }
+    }
 
-        // Calcular totales generales
-        Double totalIngresos = this.usuarioService.calcularTotalIngresos(id);
-        Double totalGastos = this.usuarioService.calcularTotalGastos(id);
-        Double balance = this.usuarioService.calcularBalance(id);
-
-        // Calcular ingresos por tipo
-        Double ingresosFijos = usuario.getIngresos().stream()
-                .filter(i -> "fijo".equalsIgnoreCase(i.getEstadoIngreso()))
-                .mapToDouble(Ingreso::getValorIngreso)
-                .sum();
-
-        Double ingresosVariables = usuario.getIngresos().stream()
-                .filter(i -> "variable".equalsIgnoreCase(i.getEstadoIngreso()))
-                .mapToDouble(Ingreso::getValorIngreso)
-                .sum();
-
-        // Calcular gastos por tipo
-        Double gastosFijos = usuario.getGastos().stream()
-                .filter(g -> "fijo".equalsIgnoreCase(g.getEstadoGasto()))
-                .mapToDouble(Gasto::getValorGasto)
-                .sum();
-
-        Double gastosVariables = usuario.getGastos().stream()
-                .filter(g -> "variable".equalsIgnoreCase(g.getEstadoGasto()))
-                .mapToDouble(Gasto::getValorGasto)
-                .sum();
-
-        ResumenFinanciero resumen = new ResumenFinanciero(
-                usuario.getId(),
-                usuario.getUsername(),
-                totalIngresos,
-                totalGastos,
-                balance,
-                ingresosVariables,
-                ingresosFijos,
-                gastosVariables,
-                gastosFijos
-        );
-
-        return ResponseEntity.ok(resumen);
+    /**
+     * Descargar todos los ingresos, gastos, metas y cuotas del usuario
+     * GET /api/v1/usuario-service/usuarios/{id}/exportar?formato=csv
+     *
+     * - formato: ndjson (por defecto, un objeto JSON por línea) o csv
+     * El archivo se escribe a medida que se lee de la base de datos, sin armarlo en memoria.
+     */
+    @GetMapping("/usuarios/{id}/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "ndjson") String formato) {
+        ExportacionService.Formato tipo;
+        try {
+            tipo = ExportacionService.Formato.de(formato);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Error al exportar los movimientos");
+            error.put("message", e.getMessage());
+            // El tipo de retorno tiene que ser StreamingResponseBody, así que el error también se escribe así
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(salida -> this.objectMapper.writeValue(salida, error));
+        }
+        // Se valida antes de empezar a escribir: después el estado de la respuesta ya no se puede cambiar
+        if (this.usuarioService.findById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody cuerpo = salida -> this.exportacionService.exportar(id, tipo, salida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(tipo.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"movimientos-usuario-" + id + "." + tipo.getExtension() + "\"")
+                .body(cuerpo);
     }
 
 
@@ -0,0 +1,33 @@
+package co.edu.uceva.celularservice.model.dao;
+
+import co.edu.uceva.celularservice.model.entities.BloqueoTarea;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+public interface BloqueoTareaDao extends CrudRepository<BloqueoTarea, String> {
+
+    // Tomar (o renovar, si ya es del mismo propietario) el bloqueo de una tarea si está libre o vencido
+    @Transactional
+    @Modifying
+    @Query("UPDATE BloqueoTarea b SET b.propietario = :propietario, b.bloqueadoHasta = :hasta " +
+           "WHERE b.nombre = :nombre AND (b.bloqueadoHasta <= :ahora OR b.propietario = :propietario)")
+    int adquirir(String nombre, String propietario, Instant ahora, Instant hasta);
+
+    // Crear la fila del bloqueo, libre, si todavía no existe
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO bloqueos_tareas (nombre, propietario, bloqueado_hasta) " +
+                   "SELECT :nombre, NULL, :libreDesde WHERE NOT EXISTS (SELECT 1 FROM bloqueos_tareas WHERE nombre = :nombre)",
+           nativeQuery = true)
+    int crearSiFalta(String nombre, Instant libreDesde);
+
+    // Soltar el bloqueo antes de que venza (solo si sigue siendo del propietario)
+    @Transactional
+    @Modifying
+    @Query("UPDATE BloqueoTarea b SET b.bloqueadoHasta = :ahora WHERE b.nombre = :nombre AND b.propietario = :propietario")
+    int liberar(String nombre, String propietario, Instant ahora);
+}
@@ -1,12 +1,21 @@
 package co.edu.uceva.celularservice.model.dao;
 
 import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface CuotaAhorroDao extends CrudRepository<CuotaAhorro, Long> {
+public interface CuotaAhorroDao extends JpaRepository<CuotaAhorro, Long> {
     
     // Buscar todas las cuotas de una meta de ahorro
     List<CuotaAhorro> findByMetaAhorroId(Long metaAhorroId);
@@ -20,6 +29,80 @@ public interface CuotaAhorroDao extends CrudRepository<CuotaAhorro, Long> {
     // Buscar cuotas vencidas (pendientes con fecha anterior a hoy)
     List<CuotaAhorro> findByEstadoAndFechaProgramadaBefore(String estado, LocalDate fecha);
     
+    // Menor y mayor id de las cuotas pendientes con fecha anterior a la dada (rango a recorrer por lotes)
+    @Query("SELECT MIN(c.id) AS desde, MAX(c.id) AS hasta FROM CuotaAhorro c " +
+           "WHERE c.estado = 'PENDIENTE' AND c.fechaProgramada < :fecha")
+    RangoIds findRangoIdsPendientesAntesDe(LocalDate fecha);
+    
+    // Marcar como vencidas, en un solo UPDATE, las cuotas pendientes con fecha anterior a la dada dentro de un rango de ids
+    @Transactional
+    @Modifying
+    @Query("UPDATE CuotaAhorro c SET c.estado = 'VENCIDA' " +
+           "WHERE c.estado = 'PENDIENTE' AND c.fechaProgramada < :fecha AND c.id BETWEEN :desde AND :hasta")
+    int marcarVencidas(LocalDate fecha, Long desde, Long hasta);
+    
     // Buscar próximas cuotas a pagar
     List<CuotaAhorro> findByMetaAhorroIdAndEstadoOrderByFechaProgramadaAsc(Long metaAhorroId, String estado);
+    
+    // Cantidad de cuotas guardadas de varias metas por estado (una fila por meta y estado)
+    @Query("SELECT c.metaAhorro.id AS metaAhorroId, c.estado AS estado, COUNT(c) AS cantidad FROM CuotaAhorro c " +
+           "WHERE c.metaAhorro.id IN :metaAhorroIds GROUP BY c.metaAhorro.id, c.estado")
+    List<ConteoCuotas> contarPorEstado(Collection<Long> metaAhorroIds);
+    
+    // Primeras cuotas de cada meta en un estado, por fecha programada (a lo sumo 'limite' por meta)
+    @Query(value = "SELECT id, numero_cuota, monto_cuota_centavos, fecha_programada, fecha_pago, estado, meta_ahorro_id FROM (" +
+                   "SELECT c.*, ROW_NUMBER() OVER (PARTITION BY c.meta_ahorro_id ORDER BY c.fecha_programada, c.numero_cuota) AS posicion " +
+                   "FROM cuotas_ahorro c WHERE c.meta_ahorro_id IN (:metaAhorroIds) AND c.estado = :estado) primeras " +
+                   "WHERE posicion <= :limite ORDER BY meta_ahorro_id, posicion", nativeQuery = true)
+    List<CuotaAhorro> findPrimerasPorEstado(Collection<Long> metaAhorroIds, String estado, int limite);
+    
+    // Cuotas guardadas de varias metas con fecha programada desde una fecha (en las virtuales: pagadas por adelantado)
+    List<CuotaAhorro> findByMetaAhorroIdInAndFechaProgramadaGreaterThanEqual(Collection<Long> metaAhorroIds, LocalDate fecha);
+    
+    // Marcar una cuota de la meta como pagada solo si sigue pendiente: de dos pagos simultáneos solo uno la actualiza
+    @Modifying
+    @Query("UPDATE CuotaAhorro c SET c.estado = 'PAGADA', c.fechaPago = :fechaPago " +
+           "WHERE c.id = :id AND c.metaAhorro.id = :metaAhorroId AND c.estado = 'PENDIENTE'")
+    int marcarPagada(Long id, Long metaAhorroId, LocalDate fechaPago);
+    
+    // Marcar como pagadas, en un solo UPDATE, las cuotas de la meta que sigan pendientes
+    @Modifying
+    @Query("UPDATE CuotaAhorro c SET c.estado = 'PAGADA', c.fechaPago = :fechaPago " +
+           "WHERE c.id IN :ids AND c.metaAhorro.id = :metaAhorroId AND c.estado = 'PENDIENTE'")
+    int marcarPagadas(Collection<Long> ids, Long metaAhorroId, LocalDate fechaPago);
+    
+    // Buscar varias cuotas de una meta por id
+    List<CuotaAhorro> findByMetaAhorroIdAndIdIn(Long metaAhorroId, Collection<Long> ids);
+    
+    // Buscar varias cuotas guardadas de una meta por número
+    List<CuotaAhorro> findByMetaAhorroIdAndNumeroCuotaIn(Long metaAhorroId, Collection<Integer> numerosCuota);
+    
+    // Monto de una cuota en centavos
+    @Query("SELECT c.montoCuotaCentavos FROM CuotaAhorro c WHERE c.id = :id")
+    Long findMontoCentavosById(Long id);
+    
+    // Id de la fila guardada de una cuota, por su número dentro de la meta
+    @Query("SELECT c.id FROM CuotaAhorro c WHERE c.metaAhorro.id = :metaAhorroId AND c.numeroCuota = :numeroCuota")
+    Optional<Long> findIdByMetaAhorroIdAndNumeroCuota(Long metaAhorroId, Integer numeroCuota);
+    
+    // Verificar si una cuota de una meta ya tiene fila guardada (en las metas con cuotas virtuales: si se pagó)
+    boolean existsByMetaAhorroIdAndNumeroCuota(Long metaAhorroId, Integer numeroCuota);
+    
+    // Cuotas guardadas de las metas anteriores (sin cuotas virtuales) de un usuario como cursor de la base de datos (exportación)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM CuotaAhorro c WHERE c.metaAhorro.usuario.id = :usuarioId AND c.metaAhorro.cuotasVirtuales = false " +
+           "ORDER BY c.metaAhorro.id, c.numeroCuota")
+    Stream<CuotaAhorro> streamByUsuarioId(Long usuarioId);
+
+    interface RangoIds {
+        Long getDesde();
+        Long getHasta();
+    }
+
+    interface ConteoCuotas {
+        Long getMetaAhorroId();
+        String getEstado();
+        long getCantidad();
+    }
 }
@@ -1,11 +1,20 @@
 package co.edu.uceva.celularservice.model.dao;
 
+import co.edu.uceva.celularservice.model.dto.GastoResumen;
+import co.edu.uceva.celularservice.model.dto.TotalPorEstado;
 import co.edu.uceva.celularservice.model.entities.Gasto;
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface GastoDao extends CrudRepository<Gasto, Long> {
+public interface GastoDao extends JpaRepository<Gasto, Long> {
     
     // Buscar todos los gastos de un usuario específico
     List<Gasto> findByUsuarioId(Long usuarioId);
@@ -15,4 +24,27 @@ public interface GastoDao extends CrudRepository<Gasto, Long> {
     
     // Buscar gastos de un usuario por estado
     List<Gasto> findByUsuarioIdAndEstadoGasto(Long usuarioId, String estadoGasto);
+    
+    // Sumar los gastos de un usuario por estado en la base de datos (sin cargar las entidades)
+    @Query("SELECT LOWER(g.estadoGasto) AS estado, SUM(g.valorGastoCentavos) AS total FROM Gasto g " +
+           "WHERE g.usuario.id = :usuarioId GROUP BY LOWER(g.estadoGasto)")
+    List<TotalPorEstado> sumarPorEstado(Long usuarioId);
+    
+    // Página de gastos con id mayor al cursor, ordenada por id (keyset: usa la clave primaria, sin OFFSET)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.GastoResumen(g.id, g.nombreGasto, g.valorGastoCentavos, " +
+           "g.estadoGasto, g.fecha, g.usuario.id) FROM Gasto g " +
+           "WHERE g.id > :despuesDe ORDER BY g.id")
+    List<GastoResumen> findResumenesDespuesDe(Long despuesDe, Limit limite);
+    
+    // Gastos de varios usuarios en una sola consulta (para expandir una página de usuarios)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.GastoResumen(g.id, g.nombreGasto, g.valorGastoCentavos, " +
+           "g.estadoGasto, g.fecha, g.usuario.id) FROM Gasto g " +
+           "WHERE g.usuario.id IN :usuarioIds ORDER BY g.id")
+    List<GastoResumen> findResumenesByUsuarioIdIn(Collection<Long> usuarioIds);
+    
+    // Gastos de un usuario como cursor de la base de datos (exportación, ver IngresoDao.streamByUsuarioId)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT g FROM Gasto g WHERE g.usuario.id = :usuarioId ORDER BY g.id")
+    Stream<Gasto> streamByUsuarioId(Long usuarioId);
 }
@@ -1,11 +1,20 @@
 package co.edu.uceva.celularservice.model.dao;
 
+import co.edu.uceva.celularservice.model.dto.IngresoResumen;
+import co.edu.uceva.celularservice.model.dto.TotalPorEstado;
 import co.edu.uceva.celularservice.model.entities.Ingreso;
-import org.springframework.data.repository.CrudRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface IngresoDao extends CrudRepository<Ingreso, Long> {
+public interface IngresoDao extends JpaRepository<Ingreso, Long> {
     
     // Buscar todos los ingresos de un usuario específico
     List<Ingreso> findByUsuarioId(Long usuarioId);
@@ -15,4 +24,28 @@ public interface IngresoDao extends CrudRepository<Ingreso, Long> {
     
     // Buscar ingresos de un usuario por estado
     List<Ingreso> findByUsuarioIdAndEstadoIngreso(Long usuarioId, String estadoIngreso);
+    
+    // Sumar los ingresos de un usuario por estado en la base de datos (sin cargar las entidades)
+    @Query("SELECT LOWER(i.estadoIngreso) AS estado, SUM(i.valorIngresoCentavos) AS total FROM Ingreso i " +
+           "WHERE i.usuario.id = :usuarioId GROUP BY LOWER(i.estadoIngreso)")
+    List<TotalPorEstado> sumarPorEstado(Long usuarioId);
+    
+    // Página de ingresos con id mayor al cursor, ordenada por id (keyset: usa la clave primaria, sin OFFSET)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.IngresoResumen(i.id, i.nombreIngreso, i.valorIngresoCentavos, " +
+           "i.estadoIngreso, i.fecha, i.usuario.id) FROM Ingreso i " +
+           "WHERE i.id > :despuesDe ORDER BY i.id")
+    List<IngresoResumen> findResumenesDespuesDe(Long despuesDe, Limit limite);
+    
+    // Ingresos de varios usuarios en una sola consulta (para expandir una página de usuarios)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.IngresoResumen(i.id, i.nombreIngreso, i.valorIngresoCentavos, " +
+           "i.estadoIngreso, i.fecha, i.usuario.id) FROM Ingreso i " +
+           "WHERE i.usuario.id IN :usuarioIds ORDER BY i.id")
+    List<IngresoResumen> findResumenesByUsuarioIdIn(Collection<Long> usuarioIds);
+    
+    // Ingresos de un usuario como cursor de la base de datos (exportación): se leen de a 500 filas y sin
+    // instantáneas para el dirty checking; requiere una transacción abierta mientras se recorre
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT i FROM Ingreso i WHERE i.usuario.id = :usuarioId ORDER BY i.id")
+    Stream<Ingreso> streamByUsuarioId(Long usuarioId);
 }
@@ -1,9 +1,17 @@
 package co.edu.uceva.celularservice.model.dao;
 
 import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.dto.MetaAhorroResumen;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MetaAhorroDao extends CrudRepository<MetaAhorro, Long> {
     
@@ -15,4 +23,25 @@ public interface MetaAhorroDao extends CrudRepository<MetaAhorro, Long> {
     
     // Buscar metas activas de un usuario
     List<MetaAhorro> findByUsuarioIdAndEstado(Long usuarioId, String estado);
+    
+    // Metas (sin cuotas) de varios usuarios en una sola consulta (para expandir una página de usuarios)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.MetaAhorroResumen(m.id, m.nombreMeta, " +
+           "m.montoObjetivoCentavos, m.montoAhorradoCentavos, m.numeroCuotas, m.valorCuotaCentavos, " +
+           "m.frecuenciaCuota, m.fechaInicio, m.fechaFinEstimada, m.estado, m.usuario.id) " +
+           "FROM MetaAhorro m WHERE m.usuario.id IN :usuarioIds ORDER BY m.id")
+    List<MetaAhorroResumen> findResumenesByUsuarioIdIn(Collection<Long> usuarioIds);
+    
+    // Sumar al monto ahorrado de forma atómica, completar la meta si llega al objetivo e incrementar su versión.
+    // Se vacía el contexto de persistencia para que las lecturas siguientes traigan la meta actualizada
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE metas_ahorro SET monto_ahorrado_centavos = monto_ahorrado_centavos + :centavos, " +
+                   "estado = CASE WHEN monto_ahorrado_centavos + :centavos >= monto_objetivo_centavos THEN 'COMPLETADA' ELSE estado END, " +
+                   "version = version + 1 WHERE id = :metaAhorroId", nativeQuery = true)
+    int sumarAhorro(Long metaAhorroId, long centavos);
+    
+    // Metas de un usuario como cursor de la base de datos (exportación, sin cargar sus cuotas)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+                 @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT m FROM MetaAhorro m WHERE m.usuario.id = :usuarioId ORDER BY m.id")
+    Stream<MetaAhorro> streamByUsuarioId(Long usuarioId);
 }
@@ -0,0 +1,41 @@
+package co.edu.uceva.celularservice.model.dao;
+
+import co.edu.uceva.celularservice.model.entities.RefreshToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshTokenDao extends CrudRepository<RefreshToken, Long> {
+
+    // Buscar un refresh token por el hash del valor presentado
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Marcar como usado solo si nadie lo usó antes (0 filas = reutilización)
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.usado = true WHERE r.id = :id AND r.usado = false AND r.revocado = false")
+    int marcarUsado(Long id);
+
+    // Revocar toda una cadena de rotaciones
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.familia = :familia")
+    int revocarFamilia(UUID familia);
+
+    // Revocar todos los refresh tokens de un usuario
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revocado = true WHERE r.usuarioId = :usuarioId")
+    int revocarPorUsuario(Long usuarioId);
+
+    // Eliminar los refresh tokens de un usuario
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.usuarioId = :usuarioId")
+    int deleteByUsuarioId(Long usuarioId);
+
+    // Eliminar tokens expirados
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiraEn < :fecha")
+    int deleteExpirados(Instant fecha);
+}
@@ -0,0 +1,60 @@
+package co.edu.uceva.celularservice.model.dao;
+
+import co.edu.uceva.celularservice.model.entities.ResumenMensual;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface ResumenMensualDao extends CrudRepository<ResumenMensual, ResumenMensual.Clave> {
+
+    // Meses guardados de un usuario entre dos periodos (incluidos)
+    List<ResumenMensual> findByUsuarioIdAndPeriodoBetweenOrderByPeriodoAsc(Long usuarioId, Integer desde, Integer hasta);
+
+    // Sumar (o restar, con valores negativos) ingresos y gastos de un mes de forma atómica
+    @Modifying
+    @Query(value = "UPDATE resumen_mensual SET ingresos = ingresos + :ingresos, gastos = gastos + :gastos " +
+                   "WHERE usuario_id = :usuarioId AND periodo = :periodo", nativeQuery = true)
+    int sumar(Long usuarioId, int periodo, long ingresos, long gastos);
+
+    // Crear el mes de un usuario con sus primeros valores
+    @Modifying
+    @Query(value = "INSERT INTO resumen_mensual (usuario_id, periodo, ingresos, gastos) " +
+                   "VALUES (:usuarioId, :periodo, :ingresos, :gastos)", nativeQuery = true)
+    int insertar(Long usuarioId, int periodo, long ingresos, long gastos);
+
+    // Crear desde las tablas base los meses de un usuario, agrupando por periodo (sin filas previas)
+    @Modifying
+    @Query(value = "INSERT INTO resumen_mensual (usuario_id, periodo, ingresos, gastos) " +
+                   "SELECT t.usuario_id, t.periodo, SUM(t.ingresos), SUM(t.gastos) FROM (" +
+                   "SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha) AS periodo, " +
+                   "valor_ingreso_centavos AS ingresos, 0 AS gastos FROM ingresos WHERE usuario_id = :usuarioId " +
+                   "UNION ALL " +
+                   "SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha), " +
+                   "0, valor_gasto_centavos FROM gastos WHERE usuario_id = :usuarioId" +
+                   ") t GROUP BY t.usuario_id, t.periodo", nativeQuery = true)
+    int crearDesdeMovimientos(Long usuarioId);
+
+    // Crear desde las tablas base los meses de todos los usuarios (sin filas previas)
+    @Modifying
+    @Query(value = "INSERT INTO resumen_mensual (usuario_id, periodo, ingresos, gastos) " +
+                   "SELECT t.usuario_id, t.periodo, SUM(t.ingresos), SUM(t.gastos) FROM (" +
+                   "SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha) AS periodo, " +
+                   "valor_ingreso_centavos AS ingresos, 0 AS gastos FROM ingresos " +
+                   "UNION ALL " +
+                   "SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha), " +
+                   "0, valor_gasto_centavos FROM gastos" +
+                   ") t GROUP BY t.usuario_id, t.periodo", nativeQuery = true)
+    int crearTodosDesdeMovimientos();
+
+    // Eliminar los meses de un usuario
+    @Modifying
+    @Query("DELETE FROM ResumenMensual r WHERE r.usuarioId = :usuarioId")
+    int deleteByUsuarioId(Long usuarioId);
+
+    // Eliminar los meses de todos los usuarios
+    @Modifying
+    @Query("DELETE FROM ResumenMensual r")
+    int deleteTodos();
+}
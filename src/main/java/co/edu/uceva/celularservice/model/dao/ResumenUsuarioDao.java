@@ -0,0 +1,86 @@
+package co.edu.uceva.celularservice.model.dao;
+
+import co.edu.uceva.celularservice.model.dto.TotalesDetalladosUsuario;
+import co.edu.uceva.celularservice.model.entities.ResumenUsuario;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ResumenUsuarioDao extends CrudRepository<ResumenUsuario, Long> {
+
+    // Totales guardados del usuario junto con su username (dos búsquedas por clave primaria)
+    @Query("SELECT u.id AS id, u.username AS username, r.totalIngresos AS totalIngresos, " +
+           "r.ingresosFijos AS ingresosFijos, r.ingresosVariables AS ingresosVariables, " +
+           "r.totalGastos AS totalGastos, r.gastosFijos AS gastosFijos, r.gastosVariables AS gastosVariables " +
+           "FROM ResumenUsuario r JOIN Usuario u ON u.id = r.usuarioId WHERE r.usuarioId = :usuarioId")
+    Optional<TotalesDetalladosUsuario> findTotalesById(Long usuarioId);
+
+    // Sumar (o restar, con valores negativos) ingresos de forma atómica
+    @Modifying
+    @Query(value = "UPDATE resumen_usuario SET total_ingresos = total_ingresos + :total, " +
+                   "ingresos_fijos = ingresos_fijos + :fijos, ingresos_variables = ingresos_variables + :variables " +
+                   "WHERE usuario_id = :usuarioId", nativeQuery = true)
+    int sumarIngresos(Long usuarioId, long total, long fijos, long variables);
+
+    // Sumar (o restar, con valores negativos) gastos de forma atómica
+    @Modifying
+    @Query(value = "UPDATE resumen_usuario SET total_gastos = total_gastos + :total, " +
+                   "gastos_fijos = gastos_fijos + :fijos, gastos_variables = gastos_variables + :variables " +
+                   "WHERE usuario_id = :usuarioId", nativeQuery = true)
+    int sumarGastos(Long usuarioId, long total, long fijos, long variables);
+
+    // Recalcular desde las tablas base los resúmenes existentes (uno o todos si usuarioId es null)
+    @Modifying
+    @Query("UPDATE ResumenUsuario r SET " +
+           "r.totalIngresos = (SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = r.usuarioId), " +
+           "r.ingresosFijos = (SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = r.usuarioId AND LOWER(i.estadoIngreso) = 'fijo'), " +
+           "r.ingresosVariables = (SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = r.usuarioId AND LOWER(i.estadoIngreso) = 'variable'), " +
+           "r.totalGastos = (SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = r.usuarioId), " +
+           "r.gastosFijos = (SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = r.usuarioId AND LOWER(g.estadoGasto) = 'fijo'), " +
+           "r.gastosVariables = (SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = r.usuarioId AND LOWER(g.estadoGasto) = 'variable') " +
+           "WHERE :usuarioId IS NULL OR r.usuarioId = :usuarioId")
+    int recalcular(Long usuarioId);
+
+    // Crear desde las tablas base los resúmenes que faltan (uno o todos si usuarioId es null)
+    @Modifying
+    @Query("INSERT INTO ResumenUsuario (usuarioId, totalIngresos, ingresosFijos, ingresosVariables, totalGastos, gastosFijos, gastosVariables) " +
+           "SELECT u.id, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id), " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'fijo'), " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'variable'), " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id), " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'fijo'), " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'variable') " +
+           "FROM Usuario u WHERE (:usuarioId IS NULL OR u.id = :usuarioId) " +
+           "AND NOT EXISTS (SELECT 1 FROM ResumenUsuario r WHERE r.usuarioId = u.id)")
+    int crearFaltantes(Long usuarioId);
+
+    // Eliminar el resumen de un usuario
+    @Modifying
+    @Query("DELETE FROM ResumenUsuario r WHERE r.usuarioId = :usuarioId")
+    int deleteByUsuarioId(Long usuarioId);
+
+    // Eliminar resúmenes de usuarios que ya no existen
+    @Modifying
+    @Query("DELETE FROM ResumenUsuario r WHERE NOT EXISTS (SELECT 1 FROM Usuario u WHERE u.id = r.usuarioId)")
+    int deleteHuerfanos();
+
+    // Totales guardados frente a los calculados desde las tablas base, usuario por usuario (verificación)
+    @Query("SELECT u.id AS id, u.username AS username, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id) AS totalIngresos, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'fijo') AS ingresosFijos, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'variable') AS ingresosVariables, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id) AS totalGastos, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'fijo') AS gastosFijos, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'variable') AS gastosVariables, " +
+           "r AS guardado " +
+           "FROM Usuario u LEFT JOIN ResumenUsuario r ON r.usuarioId = u.id ORDER BY u.id")
+    Stream<VerificacionResumen> verificarTodos();
+
+    interface VerificacionResumen extends TotalesDetalladosUsuario {
+        ResumenUsuario getGuardado();
+    }
+}
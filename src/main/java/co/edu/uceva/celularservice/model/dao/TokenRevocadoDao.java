@@ -0,0 +1,25 @@
+package co.edu.uceva.celularservice.model.dao;
+
+import co.edu.uceva.celularservice.model.entities.TokenRevocado;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface TokenRevocadoDao extends CrudRepository<TokenRevocado, String> {
+
+    // Identificadores de los tokens revocados que aún no expiran (para reconstruir el filtro de Bloom)
+    @Query("SELECT t.jti FROM TokenRevocado t WHERE t.expiraEn > :fecha")
+    List<String> findJtiVigentes(Instant fecha);
+
+    // Identificadores revocados desde una fecha (revocaciones hechas en otras réplicas)
+    @Query("SELECT t.jti FROM TokenRevocado t WHERE t.revocadoEn >= :fecha")
+    List<String> findJtiRevocadosDesde(Instant fecha);
+
+    // Eliminar revocaciones de tokens que ya expiraron
+    @Modifying
+    @Query("DELETE FROM TokenRevocado t WHERE t.expiraEn < :fecha")
+    int deleteExpirados(Instant fecha);
+}
@@ -1,16 +1,24 @@
 package co.edu.uceva.celularservice.model.dao;
 
-import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
+import co.edu.uceva.celularservice.model.dto.TotalesDetalladosUsuario;
+import co.edu.uceva.celularservice.model.dto.TotalesUsuario;
+import co.edu.uceva.celularservice.model.dto.UsuarioResumen;
 import co.edu.uceva.celularservice.model.entities.Usuario;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
- * Esta interfaz hereda de CrudRepository y se encarga de realizar las operaciones CRUD de la entidad Usuario
+ * Esta interfaz hereda de JpaRepository (CRUD y paginación) y se encarga de realizar las operaciones CRUD de la entidad Usuario
  */
 
-public interface UsuarioDao extends CrudRepository<Usuario, Long> {
+public interface UsuarioDao extends JpaRepository<Usuario, Long> {
     
     // Buscar usuario por username para autenticación
     Optional<Usuario> findByUsername(String username);
@@ -23,4 +31,42 @@ public interface UsuarioDao extends CrudRepository<Usuario, Long> {
     
     // Verificar si existe un correo
     Boolean existsByCorreo(String correo);
+    
+    // Página de usuarios con id mayor al cursor, sin contraseña ni colecciones (keyset por clave primaria)
+    @Query("SELECT new co.edu.uceva.celularservice.model.dto.UsuarioResumen(u.id, u.rol, u.correo, u.username) " +
+           "FROM Usuario u WHERE u.id > :despuesDe ORDER BY u.id")
+    List<UsuarioResumen> findResumenesDespuesDe(Long despuesDe, Limit limite);
+    
+    // Totales de ingresos y gastos en una sola consulta (vacío si el usuario no existe)
+    @Query("SELECT u.id AS id, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id) AS totalIngresos, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id) AS totalGastos " +
+           "FROM Usuario u WHERE u.id = :id")
+    Optional<TotalesUsuario> findTotalesById(Long id);
+    
+    // Totales con el desglose fijo/variable para el resumen financiero, en una sola consulta
+    @Query("SELECT u.id AS id, u.username AS username, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id) AS totalIngresos, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'fijo') AS ingresosFijos, " +
+           "(SELECT COALESCE(SUM(i.valorIngresoCentavos), 0) FROM Ingreso i WHERE i.usuario.id = u.id AND LOWER(i.estadoIngreso) = 'variable') AS ingresosVariables, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id) AS totalGastos, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'fijo') AS gastosFijos, " +
+           "(SELECT COALESCE(SUM(g.valorGastoCentavos), 0) FROM Gasto g WHERE g.usuario.id = u.id AND LOWER(g.estadoGasto) = 'variable') AS gastosVariables " +
+           "FROM Usuario u WHERE u.id = :id")
+    Optional<TotalesDetalladosUsuario> findTotalesDetalladosById(Long id);
+    
+    // Obtener solo la versión de token del usuario (sin cargar la entidad)
+    @Query("SELECT u.tokenVersion FROM Usuario u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(Long id);
+    
+    // Reemplazar el hash de la contraseña (re-hash al cambiar el costo BCrypt)
+    @Modifying
+    @Query("UPDATE Usuario u SET u.password = :password WHERE u.username = :username")
+    int actualizarPassword(String username, String password);
+    
+    // Invalidar todos los tokens emitidos al usuario ("cerrar todas las sesiones")
+    @Transactional
+    @Modifying
+    @Query("UPDATE Usuario u SET u.tokenVersion = COALESCE(u.tokenVersion, 0) + 1 WHERE u.id = :id")
+    int incrementarTokenVersion(Long id);
 }
@@ -14,9 +14,11 @@ public class AuthResponse {
     private String username;
     private String correo;
     private String rol;
+    private String refreshToken;
 
-    public AuthResponse(String token, Long id, String username, String correo, String rol) {
+    public AuthResponse(String token, String refreshToken, Long id, String username, String correo, String rol) {
         this.token = token;
+        this.refreshToken = refreshToken;
         this.id = id;
         this.username = username;
         this.correo = correo;
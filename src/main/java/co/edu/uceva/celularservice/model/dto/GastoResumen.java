@@ -0,0 +1,33 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import co.edu.uceva.celularservice.model.util.Dinero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Gasto para los listados: solo sus columnas y el id del usuario, sin cargar el usuario
+ */
+@Data
+@NoArgsConstructor
+public class GastoResumen {
+
+    private Long id;
+    private String nombreGasto;
+    private Double valorGasto;
+    private String estadoGasto;
+    private LocalDate fecha;
+    private Long usuarioId;
+
+    // Usado por las consultas JPQL (SELECT new ...); el valor llega en centavos
+    public GastoResumen(Long id, String nombreGasto, Long valorGastoCentavos, String estadoGasto,
+                        LocalDate fecha, Long usuarioId) {
+        this.id = id;
+        this.nombreGasto = nombreGasto;
+        this.valorGasto = Dinero.aDecimal(valorGastoCentavos);
+        this.estadoGasto = estadoGasto;
+        this.fecha = fecha;
+        this.usuarioId = usuarioId;
+    }
+}
@@ -0,0 +1,33 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import co.edu.uceva.celularservice.model.util.Dinero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Ingreso para los listados: solo sus columnas y el id del usuario, sin cargar el usuario
+ */
+@Data
+@NoArgsConstructor
+public class IngresoResumen {
+
+    private Long id;
+    private String nombreIngreso;
+    private Double valorIngreso;
+    private String estadoIngreso;
+    private LocalDate fecha;
+    private Long usuarioId;
+
+    // Usado por las consultas JPQL (SELECT new ...); el valor llega en centavos
+    public IngresoResumen(Long id, String nombreIngreso, Long valorIngresoCentavos, String estadoIngreso,
+                          LocalDate fecha, Long usuarioId) {
+        this.id = id;
+        this.nombreIngreso = nombreIngreso;
+        this.valorIngreso = Dinero.aDecimal(valorIngresoCentavos);
+        this.estadoIngreso = estadoIngreso;
+        this.fecha = fecha;
+        this.usuarioId = usuarioId;
+    }
+}
@@ -0,0 +1,44 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import co.edu.uceva.celularservice.model.util.Dinero;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Meta de ahorro para los listados, sin sus cuotas
+ */
+@Data
+@NoArgsConstructor
+public class MetaAhorroResumen {
+
+    private Long id;
+    private String nombreMeta;
+    private Double montoObjetivo;
+    private Double montoAhorrado;
+    private Integer numeroCuotas;
+    private Double valorCuota;
+    private String frecuenciaCuota;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFinEstimada;
+    private String estado;
+    private Long usuarioId;
+
+    // Usado por las consultas JPQL (SELECT new ...); los montos llegan en centavos
+    public MetaAhorroResumen(Long id, String nombreMeta, Long montoObjetivoCentavos, Long montoAhorradoCentavos,
+                             Integer numeroCuotas, Long valorCuotaCentavos, String frecuenciaCuota,
+                             LocalDate fechaInicio, LocalDate fechaFinEstimada, String estado, Long usuarioId) {
+        this.id = id;
+        this.nombreMeta = nombreMeta;
+        this.montoObjetivo = Dinero.aDecimal(montoObjetivoCentavos);
+        this.montoAhorrado = Dinero.aDecimal(montoAhorradoCentavos);
+        this.numeroCuotas = numeroCuotas;
+        this.valorCuota = Dinero.aDecimal(valorCuotaCentavos);
+        this.frecuenciaCuota = frecuenciaCuota;
+        this.fechaInicio = fechaInicio;
+        this.fechaFinEstimada = fechaFinEstimada;
+        this.estado = estado;
+        this.usuarioId = usuarioId;
+    }
+}
@@ -0,0 +1,17 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagarCuotasRequest {
+    
+    private List<Long> cuotaIds; // Cuotas a pagar por id
+    private List<Integer> numerosCuota; // O bien: por su número dentro de la meta (las cuotas virtuales sin pagar no tienen id)
+    private Double monto; // O bien: monto a abonar, que paga las primeras cuotas pendientes que cubre completas
+}
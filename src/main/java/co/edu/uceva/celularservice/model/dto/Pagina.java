@@ -0,0 +1,45 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de un listado paginado por cursor (keyset): los elementos y el id desde el que sigue
+ * la siguiente página (null si es la última)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Pagina<T> {
+
+    public static final int LIMITE_POR_DEFECTO = 50;
+    public static final int LIMITE_MAXIMO = 200;
+
+    private List<T> elementos;
+    private Long siguiente;
+
+    /**
+     * Tamaño de página a usar: el pedido, acotado entre 1 y LIMITE_MAXIMO
+     */
+    public static int limite(Integer pedido) {
+        if (pedido == null) {
+            return LIMITE_POR_DEFECTO;
+        }
+        return Math.max(1, Math.min(pedido, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Arma la página a partir de una consulta que pidió limite + 1 filas: si sobra una, hay más páginas
+     */
+    public static <T> Pagina<T> de(List<T> filas, int limite, Function<T, Long> id) {
+        if (filas.size() <= limite) {
+            return new Pagina<>(filas, null);
+        }
+        List<T> elementos = filas.subList(0, limite);
+        return new Pagina<>(elementos, id.apply(elementos.get(limite - 1)));
+    }
+}
@@ -11,5 +11,5 @@ public class RegisterRequest {
     private String username;
     private String correo;
     private String password;
-    private String rol; // "USER" o "ADMIN"
+    private String rol; // opcional, solo se acepta "USER"
 }
@@ -0,0 +1,35 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reporte de una importación masiva: totales y el resultado de cada fila en el orden recibido
+ */
+@Data
+@NoArgsConstructor
+public class ResultadoImportacion {
+
+    private int recibidas;
+    private int insertadas;
+    private int rechazadas;
+    private List<Fila> filas = new ArrayList<>();
+
+    /**
+     * Resultado de una fila: el id asignado si se insertó o el motivo del rechazo
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Fila {
+        private int fila; // posición en la petición, desde 1 (en CSV sin contar la cabecera)
+        private Long id;
+        private String error;
+    }
+}
@@ -0,0 +1,19 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ingresos, gastos y balance de un usuario en un mes de la serie mensual
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TotalMensual {
+
+    private String mes; // "2025-10"
+    private Double ingresos;
+    private Double gastos;
+    private Double balance; // ingresos - gastos
+}
@@ -0,0 +1,9 @@
+package co.edu.uceva.celularservice.model.dto;
+
+/**
+ * Suma de valores (en centavos) agrupada por estado ("fijo" o "variable"), calculada en la base de datos
+ */
+public interface TotalPorEstado {
+    String getEstado();
+    long getTotal();
+}
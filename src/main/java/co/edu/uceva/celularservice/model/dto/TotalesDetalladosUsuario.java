@@ -0,0 +1,12 @@
+package co.edu.uceva.celularservice.model.dto;
+
+/**
+ * Totales de un usuario con el desglose por tipo (fijo/variable), calculados en una sola consulta
+ */
+public interface TotalesDetalladosUsuario extends TotalesUsuario {
+    String getUsername();
+    long getIngresosFijos();
+    long getIngresosVariables();
+    long getGastosFijos();
+    long getGastosVariables();
+}
@@ -0,0 +1,15 @@
+package co.edu.uceva.celularservice.model.dto;
+
+/**
+ * Totales de ingresos y gastos de un usuario calculados en una sola consulta.
+ * Si el usuario no existe la consulta no retorna fila. Los montos están en centavos.
+ */
+public interface TotalesUsuario {
+    Long getId();
+    long getTotalIngresos();
+    long getTotalGastos();
+
+    default long getBalance() {
+        return getTotalIngresos() - getTotalGastos();
+    }
+}
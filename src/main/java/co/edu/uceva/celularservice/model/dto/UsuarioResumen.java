@@ -0,0 +1,34 @@
+package co.edu.uceva.celularservice.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Usuario para los listados: sin contraseña y sin colecciones, salvo las que se pidan con "expand"
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UsuarioResumen {
+
+    private Long id;
+    private String rol;
+    private String correo;
+    private String username;
+
+    // Solo presentes si se piden con expand=ingresos,gastos,metasAhorro
+    private List<IngresoResumen> ingresos;
+    private List<GastoResumen> gastos;
+    private List<MetaAhorroResumen> metasAhorro;
+
+    // Usado por las consultas JPQL (SELECT new ...)
+    public UsuarioResumen(Long id, String rol, String correo, String username) {
+        this.id = id;
+        this.rol = rol;
+        this.correo = correo;
+        this.username = username;
+    }
+}
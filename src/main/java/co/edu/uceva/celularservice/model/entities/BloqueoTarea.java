@@ -0,0 +1,30 @@
+package co.edu.uceva.celularservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Bloqueo con vencimiento (lease) de una tarea programada: la réplica que lo tiene es la única que
+ * ejecuta la tarea hasta bloqueadoHasta. Si la réplica se cae, el bloqueo vence solo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "bloqueos_tareas")
+public class BloqueoTarea {
+
+    @Id
+    @Column(name = "nombre", length = 64)
+    private String nombre;
+
+    @Column(name = "propietario", length = 128)
+    private String propietario;
+
+    @Column(name = "bloqueado_hasta", nullable = false)
+    private Instant bloqueadoHasta;
+}
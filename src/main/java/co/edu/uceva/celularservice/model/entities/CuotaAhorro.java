@@ -1,6 +1,9 @@
 package co.edu.uceva.celularservice.model.entities;
 
+import co.edu.uceva.celularservice.model.util.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,18 +15,22 @@ import java.time.LocalDate;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "cuotas_ahorro")
+@Table(name = "cuotas_ahorro",
+        uniqueConstraints = @UniqueConstraint(name = "uk_cuotas_ahorro_meta_numero", columnNames = {"meta_ahorro_id", "numero_cuota"}),
+        indexes = @Index(name = "idx_cuotas_ahorro_estado_fecha", columnList = "estado, fecha_programada"))
 public class CuotaAhorro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cuotas_ahorro_seq")
+    @SequenceGenerator(name = "cuotas_ahorro_seq", sequenceName = "cuotas_ahorro_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "numero_cuota", nullable = false)
     private Integer numeroCuota;
 
-    @Column(name = "monto_cuota", nullable = false)
-    private Double montoCuota;
+    @JsonIgnore
+    @Column(name = "monto_cuota_centavos", nullable = false)
+    private Long montoCuotaCentavos; // en centavos
 
     @Column(name = "fecha_programada", nullable = false)
     private LocalDate fechaProgramada;
@@ -39,6 +46,17 @@ public class CuotaAhorro {
     @JsonIgnoreProperties({"cuotas", "usuario", "hibernateLazyInitializer", "handler"})
     private MetaAhorro metaAhorro;
 
+    // En el JSON el monto sigue siendo un número decimal
+    @JsonProperty("montoCuota")
+    public Double getMontoCuota() {
+        return Dinero.aDecimal(montoCuotaCentavos);
+    }
+
+    @JsonProperty("montoCuota")
+    public void setMontoCuota(Double montoCuota) {
+        this.montoCuotaCentavos = Dinero.aCentavos(montoCuota);
+    }
+
     /**
      * Verifica si la cuota está vencida
      */
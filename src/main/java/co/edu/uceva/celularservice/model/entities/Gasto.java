@@ -1,33 +1,54 @@
 package co.edu.uceva.celularservice.model.entities;
 
+import co.edu.uceva.celularservice.model.util.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "gastos")
+@Table(name = "gastos", indexes = @Index(name = "idx_gastos_usuario_fecha", columnList = "usuario_id, fecha"))
 public class Gasto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gastos_seq")
+    @SequenceGenerator(name = "gastos_seq", sequenceName = "gastos_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre_gasto", nullable = false)
     private String nombreGasto;
 
-    @Column(name = "valor_gasto", nullable = false)
-    private Double valorGasto;
+    @JsonIgnore
+    @Column(name = "valor_gasto_centavos", nullable = false)
+    private Long valorGastoCentavos; // en centavos
 
     @Column(name = "estado_gasto", nullable = false)
     private String estadoGasto; // "fijo" o "variable"
 
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha; // fecha del movimiento (si no se envía, el día en que se registra)
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     @JsonIgnoreProperties({"ingresos", "gastos", "hibernateLazyInitializer", "handler"})
     private Usuario usuario;
+
+    // En el JSON el valor sigue siendo un número decimal
+    @JsonProperty("valorGasto")
+    public Double getValorGasto() {
+        return Dinero.aDecimal(valorGastoCentavos);
+    }
+
+    @JsonProperty("valorGasto")
+    public void setValorGasto(Double valorGasto) {
+        this.valorGastoCentavos = Dinero.aCentavos(valorGasto);
+    }
 }
@@ -1,33 +1,54 @@
 package co.edu.uceva.celularservice.model.entities;
 
+import co.edu.uceva.celularservice.model.util.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "ingresos")
+@Table(name = "ingresos", indexes = @Index(name = "idx_ingresos_usuario_fecha", columnList = "usuario_id, fecha"))
 public class Ingreso {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingresos_seq")
+    @SequenceGenerator(name = "ingresos_seq", sequenceName = "ingresos_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre_ingreso", nullable = false)
     private String nombreIngreso;
 
-    @Column(name = "valor_ingreso", nullable = false)
-    private Double valorIngreso;
+    @JsonIgnore
+    @Column(name = "valor_ingreso_centavos", nullable = false)
+    private Long valorIngresoCentavos; // en centavos
 
     @Column(name = "estado_ingreso", nullable = false)
     private String estadoIngreso; // "fijo" o "variable"
 
+    @Column(name = "fecha", nullable = false)
+    private LocalDate fecha; // fecha del movimiento (si no se envía, el día en que se registra)
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     @JsonIgnoreProperties({"ingresos", "gastos", "hibernateLazyInitializer", "handler"})
     private Usuario usuario;
+
+    // En el JSON el valor sigue siendo un número decimal
+    @JsonProperty("valorIngreso")
+    public Double getValorIngreso() {
+        return Dinero.aDecimal(valorIngresoCentavos);
+    }
+
+    @JsonProperty("valorIngreso")
+    public void setValorIngreso(Double valorIngreso) {
+        this.valorIngresoCentavos = Dinero.aCentavos(valorIngreso);
+    }
 }
@@ -1,6 +1,10 @@
 package co.edu.uceva.celularservice.model.entities;
 
+import co.edu.uceva.celularservice.model.util.CronogramaCuotas;
+import co.edu.uceva.celularservice.model.util.Dinero;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -8,7 +12,9 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -18,23 +24,27 @@ import java.util.List;
 public class MetaAhorro {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "metas_ahorro_seq")
+    @SequenceGenerator(name = "metas_ahorro_seq", sequenceName = "metas_ahorro_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre_meta", nullable = false)
     private String nombreMeta;
 
-    @Column(name = "monto_objetivo", nullable = false)
-    private Double montoObjetivo;
+    @JsonIgnore
+    @Column(name = "monto_objetivo_centavos", nullable = false)
+    private Long montoObjetivoCentavos; // en centavos
 
-    @Column(name = "monto_ahorrado", nullable = false)
-    private Double montoAhorrado = 0.0;
+    @JsonIgnore
+    @Column(name = "monto_ahorrado_centavos", nullable = false)
+    private Long montoAhorradoCentavos = 0L; // en centavos
 
     @Column(name = "numero_cuotas", nullable = false)
     private Integer numeroCuotas;
 
-    @Column(name = "valor_cuota", nullable = false)
-    private Double valorCuota;
+    @JsonIgnore
+    @Column(name = "valor_cuota_centavos", nullable = false)
+    private Long valorCuotaCentavos; // cuota mayor en centavos (las cuotas difieren a lo sumo en un centavo)
 
     @Column(name = "frecuencia_cuota", nullable = false)
     private String frecuenciaCuota; // "SEMANAL", "QUINCENAL", "MENSUAL"
@@ -51,34 +61,128 @@ public class MetaAhorro {
     @Column(name = "porcentaje_balance")
     private Double porcentajeBalance; // Porcentaje del balance que se quiere ahorrar
 
+    // true: el cronograma se calcula (CronogramaCuotas) y solo se guardan las cuotas pagadas;
+    // false: metas anteriores, con una fila guardada por cuota
+    @JsonIgnore
+    @Column(name = "cuotas_virtuales", nullable = false)
+    private boolean cuotasVirtuales = false;
+
+    // Los pagos suman con un UPDATE atómico que también incrementa la versión: un guardado de la entidad
+    // leída antes de un pago falla (bloqueo optimista) en lugar de pisar el monto ahorrado
+    @JsonIgnore
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "usuario_id", nullable = false)
     @JsonIgnoreProperties({"ingresos", "gastos", "metasAhorro", "hibernateLazyInitializer", "handler"})
     private Usuario usuario;
 
+    // Filas guardadas: todas las cuotas en las metas anteriores, solo las pagadas si las cuotas son virtuales
+    @JsonIgnore
     @OneToMany(mappedBy = "metaAhorro", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<CuotaAhorro> cuotasRegistradas = new ArrayList<>();
+
+    // En el JSON los montos siguen siendo números decimales
+    @JsonProperty("montoObjetivo")
+    public Double getMontoObjetivo() {
+        return Dinero.aDecimal(montoObjetivoCentavos);
+    }
+
+    @JsonProperty("montoObjetivo")
+    public void setMontoObjetivo(Double montoObjetivo) {
+        this.montoObjetivoCentavos = Dinero.aCentavos(montoObjetivo);
+    }
+
+    @JsonProperty("montoAhorrado")
+    public Double getMontoAhorrado() {
+        return Dinero.aDecimal(montoAhorradoCentavos);
+    }
+
+    @JsonProperty("montoAhorrado")
+    public void setMontoAhorrado(Double montoAhorrado) {
+        this.montoAhorradoCentavos = Dinero.aCentavos(montoAhorrado);
+    }
+
+    @JsonProperty("valorCuota")
+    public Double getValorCuota() {
+        return Dinero.aDecimal(valorCuotaCentavos);
+    }
+
+    @JsonProperty("valorCuota")
+    public void setValorCuota(Double valorCuota) {
+        this.valorCuotaCentavos = Dinero.aCentavos(valorCuota);
+    }
+
+    /**
+     * Cronograma calculado de la meta (fechas y montos de sus cuotas)
+     */
+    @JsonIgnore
+    public CronogramaCuotas getCronograma() {
+        return new CronogramaCuotas(fechaInicio, frecuenciaCuota, numeroCuotas, montoObjetivoCentavos);
+    }
+
+    /**
+     * Todas las cuotas de la meta. Con cuotas virtuales se arman a partir del cronograma y de las pagadas.
+     */
+    @JsonProperty("cuotas")
     @JsonIgnoreProperties({"metaAhorro", "hibernateLazyInitializer", "handler"})
-    private List<CuotaAhorro> cuotas = new ArrayList<>();
+    public List<CuotaAhorro> getCuotas() {
+        if (!cuotasVirtuales) {
+            return cuotasRegistradas;
+        }
+        Map<Integer, CuotaAhorro> pagadas = new HashMap<>();
+        for (CuotaAhorro cuota : cuotasRegistradas) {
+            pagadas.put(cuota.getNumeroCuota(), cuota);
+        }
+        CronogramaCuotas cronograma = getCronograma();
+        LocalDate hoy = LocalDate.now();
+        List<CuotaAhorro> cuotas = new ArrayList<>(numeroCuotas);
+        for (int numero = 1; numero <= numeroCuotas; numero++) {
+            cuotas.add(cuotaDelCronograma(cronograma, numero, pagadas.get(numero), hoy));
+        }
+        return cuotas;
+    }
+
+    /**
+     * Cuota de una meta con cuotas virtuales tal como se expone en la API. registrada es la fila guardada
+     * de la cuota (si se pagó), que se devuelve tal cual, o null: la cuota calculada no tiene id y se identifica
+     * por su número dentro de la meta. Una cuota sin pagar cuya fecha ya pasó se muestra VENCIDA
+     * (lo mismo que hace el proceso diario de cuotas vencidas con las cuotas guardadas).
+     */
+    public CuotaAhorro cuotaDelCronograma(CronogramaCuotas cronograma, int numero, CuotaAhorro registrada, LocalDate hoy) {
+        if (registrada != null) {
+            return registrada;
+        }
+        CuotaAhorro cuota = new CuotaAhorro();
+        cuota.setNumeroCuota(numero);
+        cuota.setMetaAhorro(this);
+        cuota.setMontoCuotaCentavos(cronograma.monto(numero));
+        cuota.setFechaProgramada(cronograma.fecha(numero));
+        cuota.setEstado(cuota.getFechaProgramada().isBefore(hoy) ? "VENCIDA" : "PENDIENTE");
+        return cuota;
+    }
 
     /**
      * Calcula el porcentaje de progreso de la meta
      */
     public Double calcularProgreso() {
-        if (montoObjetivo == 0) return 0.0;
-        return (montoAhorrado / montoObjetivo) * 100;
+        if (montoObjetivoCentavos == 0) return 0.0;
+        return montoAhorradoCentavos * 100.0 / montoObjetivoCentavos;
     }
 
     /**
      * Verifica si la meta está completada
      */
     public boolean estaCompletada() {
-        return montoAhorrado >= montoObjetivo;
+        return montoAhorradoCentavos >= montoObjetivoCentavos;
     }
 
     /**
-     * Calcula cuánto falta para completar la meta
+     * Calcula cuántos centavos faltan para completar la meta
      */
-    public Double calcularMontoFaltante() {
-        return Math.max(0, montoObjetivo - montoAhorrado);
+    public long calcularCentavosFaltantes() {
+        return Math.max(0, montoObjetivoCentavos - montoAhorradoCentavos);
     }
 }
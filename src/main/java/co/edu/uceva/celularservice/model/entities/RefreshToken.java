@@ -0,0 +1,50 @@
+package co.edu.uceva.celularservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Refresh token emitido a un usuario. Solo se guarda el SHA-256 del token.
+ * Los tokens de una misma cadena de rotaciones comparten "familia": si un token ya usado
+ * se presenta de nuevo se revoca la familia completa.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_tokens",
+        uniqueConstraints = @UniqueConstraint(name = "uk_refresh_tokens_hash", columnNames = "token_hash"),
+        indexes = {
+                @Index(name = "idx_refresh_tokens_usuario", columnList = "usuario_id"),
+                // Revocar una familia completa (reuso detectado) sin recorrer toda la tabla
+                @Index(name = "idx_refresh_tokens_familia", columnList = "familia")
+        })
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "familia", nullable = false)
+    private UUID familia;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    @Column(name = "usado", nullable = false)
+    private boolean usado = false;
+
+    @Column(name = "revocado", nullable = false)
+    private boolean revocado = false;
+}
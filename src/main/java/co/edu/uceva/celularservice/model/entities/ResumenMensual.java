@@ -0,0 +1,57 @@
+package co.edu.uceva.celularservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Totales de ingresos y gastos de un usuario en un mes (montos en centavos).
+ * Se mantienen con incrementos en la misma transacción que cada alta, cambio o baja de un movimiento,
+ * de modo que la serie mensual se arma con una fila por mes en lugar de recorrer todos los movimientos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "resumen_mensual")
+@IdClass(ResumenMensual.Clave.class)
+public class ResumenMensual {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Id
+    @Column(name = "periodo")
+    private Integer periodo; // año * 100 + mes (p. ej. 202610)
+
+    @Column(name = "ingresos", nullable = false)
+    private Long ingresos = 0L;
+
+    @Column(name = "gastos", nullable = false)
+    private Long gastos = 0L;
+
+    /**
+     * Periodo (año * 100 + mes) de una fecha; 0 si la fecha es null
+     */
+    public static int periodo(LocalDate fecha) {
+        return fecha != null ? periodo(YearMonth.from(fecha)) : 0;
+    }
+
+    public static int periodo(YearMonth mes) {
+        return mes.getYear() * 100 + mes.getMonthValue();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Clave implements Serializable {
+        private Long usuarioId;
+        private Integer periodo;
+    }
+}
@@ -0,0 +1,47 @@
+package co.edu.uceva.celularservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Totales acumulados de ingresos y gastos de un usuario, por tipo (fijo/variable).
+ * Se mantienen con incrementos atómicos en la misma transacción que cada alta, cambio
+ * o baja de un ingreso o gasto, así que consultar el balance no depende de cuántas filas tenga el usuario.
+ * Los totales incluyen también los movimientos con un estado distinto de "fijo" o "variable".
+ * Todos los montos están en centavos.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "resumen_usuario")
+public class ResumenUsuario {
+
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "total_ingresos", nullable = false)
+    private Long totalIngresos = 0L;
+
+    @Column(name = "ingresos_fijos", nullable = false)
+    private Long ingresosFijos = 0L;
+
+    @Column(name = "ingresos_variables", nullable = false)
+    private Long ingresosVariables = 0L;
+
+    @Column(name = "total_gastos", nullable = false)
+    private Long totalGastos = 0L;
+
+    @Column(name = "gastos_fijos", nullable = false)
+    private Long gastosFijos = 0L;
+
+    @Column(name = "gastos_variables", nullable = false)
+    private Long gastosVariables = 0L;
+
+    public ResumenUsuario(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+}
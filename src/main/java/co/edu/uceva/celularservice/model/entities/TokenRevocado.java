@@ -0,0 +1,37 @@
+package co.edu.uceva.celularservice.model.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Access token (JWT) revocado antes de su expiración, identificado por su claim "jti".
+ * La fila solo hace falta hasta que el token expira; después se elimina.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "tokens_revocados",
+        indexes = {
+                @Index(name = "idx_tokens_revocados_expira", columnList = "expira_en"),
+                @Index(name = "idx_tokens_revocados_revocado", columnList = "revocado_en")
+        })
+public class TokenRevocado {
+
+    @Id
+    @Column(name = "jti", length = 36)
+    private String jti;
+
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    @Column(name = "expira_en", nullable = false)
+    private Instant expiraEn;
+
+    @Column(name = "revocado_en", nullable = false)
+    private Instant revocadoEn;
+}
@@ -1,10 +1,12 @@
 package co.edu.uceva.celularservice.model.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -13,25 +15,41 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "usuarios")
+@Table(name = "usuarios", uniqueConstraints = {
+        @UniqueConstraint(name = Usuario.UK_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = Usuario.UK_CORREO, columnNames = "correo")
+})
 public class Usuario {
 
+    // Nombres de las restricciones únicas, usados para traducir violaciones al registrar
+    public static final String UK_USERNAME = "uk_usuarios_username";
+    public static final String UK_CORREO = "uk_usuarios_correo";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Secuencia con optimizador pooled: una llamada a la secuencia reserva 50 ids, así las inserciones
+    // se pueden agrupar en lotes JDBC (con IDENTITY Hibernate inserta cada fila apenas se persiste)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "usuarios_seq")
+    @SequenceGenerator(name = "usuarios_seq", sequenceName = "usuarios_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
     private String rol;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String correo;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
     @Column(nullable = false)
     private String password;
 
+    // Se incrementa al cambiar rol o username para invalidar los tokens emitidos antes del cambio
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
+
     @OneToMany(mappedBy = "usuario", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonIgnoreProperties("usuario")
     private List<Ingreso> ingresos = new ArrayList<>();
@@ -3,16 +3,25 @@ package co.edu.uceva.celularservice.model.service;
 import co.edu.uceva.celularservice.model.dao.UsuarioDao;
 import co.edu.uceva.celularservice.model.dto.AuthResponse;
 import co.edu.uceva.celularservice.model.dto.LoginRequest;
+import co.edu.uceva.celularservice.model.dto.RefreshTokenRequest;
 import co.edu.uceva.celularservice.model.dto.RegisterRequest;
 import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.security.CustomUserDetailsService;
 import co.edu.uceva.celularservice.security.JwtTokenProvider;
+import co.edu.uceva.celularservice.security.TokenVersionCache;
+import co.edu.uceva.celularservice.security.UsuarioPrincipal;
+import co.edu.uceva.celularservice.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class AuthService {
@@ -29,6 +38,27 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private TokenRevocacionService tokenRevocacionService;
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public AuthResponse login(LoginRequest loginRequest) {
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -38,52 +68,130 @@ public class AuthService {
         );
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = tokenProvider.generateToken(authentication);
 
-        Usuario usuario = usuarioDao.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
+        // El principal ya trae id, correo y rol: no hace falta volver a consultar el usuario
+        UsuarioPrincipal principal = (UsuarioPrincipal) authentication.getPrincipal();
+
+        String jwt = tokenProvider.generateToken(principal);
+        String refreshToken = refreshTokenService.emitir(principal.getId());
 
         return new AuthResponse(
                 jwt,
-                usuario.getId(),
-                usuario.getUsername(),
-                usuario.getCorreo(),
-                usuario.getRol()
+                refreshToken,
+                principal.getId(),
+                principal.getUsername(),
+                principal.getCorreo(),
+                principal.getRol()
         );
     }
 
     public AuthResponse register(RegisterRequest registerRequest) {
-        // Verificar si el username ya existe
-        if (usuarioDao.existsByUsername(registerRequest.getUsername())) {
-            throw new RuntimeException("El username ya está en uso");
-        }
-
-        // Verificar si el correo ya existe
-        if (usuarioDao.existsByCorreo(registerRequest.getCorreo())) {
-            throw new RuntimeException("El correo ya está registrado");
+        // El registro es público: el rol ADMIN solo lo asigna otro administrador
+        if (registerRequest.getRol() != null && !"USER".equals(registerRequest.getRol())) {
+            throw new RuntimeException("El registro solo crea usuarios con rol USER");
         }
 
-        // Crear nuevo usuario
+        // Crear nuevo usuario. El hash (BCrypt en el pool acotado, quizá tras esperar en su cola) se calcula
+        // antes de abrir la transacción para no retener una conexión de la base mientras tanto
         Usuario usuario = new Usuario();
         usuario.setUsername(registerRequest.getUsername());
         usuario.setCorreo(registerRequest.getCorreo());
         usuario.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-        usuario.setRol(registerRequest.getRol() != null ? registerRequest.getRol() : "USER");
+        usuario.setRol("USER");
 
-        usuarioDao.save(usuario);
+        // El usuario, su resumen vacío y el refresh token se crean en una sola transacción
+        AuthResponse response = transactionTemplate.execute(status -> guardarRegistro(usuario));
+        userDetailsService.olvidarDesconocido(response.getUsername());
+        return response;
+    }
 
-        // Autenticar y generar token
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        registerRequest.getUsername(),
-                        registerRequest.getPassword()
-                )
+    private AuthResponse guardarRegistro(Usuario nuevo) {
+        // Un solo INSERT: los duplicados los detectan las restricciones únicas de la tabla.
+        // saveAndFlush lo envía aquí mismo para que la violación se traduzca dentro del try
+        Usuario usuario;
+        try {
+            usuario = usuarioDao.saveAndFlush(nuevo);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException(mensajeDuplicado(e), e);
+        }
+        resumenUsuarioService.crearVacio(usuario.getId());
+
+        // El usuario recién guardado ya tiene todo lo necesario para emitir el token
+        String jwt = tokenProvider.generateToken(usuario);
+        String refreshToken = refreshTokenService.emitir(usuario.getId());
+
+        return new AuthResponse(
+                jwt,
+                refreshToken,
+                usuario.getId(),
+                usuario.getUsername(),
+                usuario.getCorreo(),
+                usuario.getRol()
         );
+    }
+
+    /**
+     * Traduce la violación de unicidad al mensaje de error del registro
+     */
+    private String mensajeDuplicado(DataIntegrityViolationException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            String detalle = t instanceof ConstraintViolationException cve && cve.getConstraintName() != null
+                    ? cve.getConstraintName() + " " + t.getMessage()
+                    : String.valueOf(t.getMessage());
+            detalle = detalle.toLowerCase();
+            if (detalle.contains(Usuario.UK_USERNAME)) {
+                return "El username ya está en uso";
+            }
+            if (detalle.contains(Usuario.UK_CORREO)) {
+                return "El correo ya está registrado";
+            }
+        }
+        return "El username o el correo ya están registrados";
+    }
+
+    /**
+     * Cierra la sesión actual: revoca el access token presentado y, si se envía, la sesión de su refresh token
+     */
+    public void logout(String jwt, String refreshToken, UsuarioPrincipal principal) {
+        Claims claims = tokenProvider.getValidClaims(jwt);
+        if (claims == null) {
+            throw new RuntimeException("Token inválido");
+        }
+        tokenRevocacionService.revocar(claims, principal.getId());
+        refreshTokenService.revocar(refreshToken, principal.getId());
+    }
+
+    /**
+     * Cierra todas las sesiones del usuario: los tokens emitidos antes dejan de ser válidos
+     * (cambia su versión de token) y se revocan todos sus refresh tokens
+     */
+    public void logoutAll(UsuarioPrincipal principal) {
+        if (usuarioDao.incrementarTokenVersion(principal.getId()) == 0) {
+            throw new RuntimeException("Usuario no encontrado");
+        }
+        refreshTokenService.revocarPorUsuario(principal.getId());
+
+        // logoutAll no es transaccional: cada llamada a la base ya confirmó su cambio, así que al invalidar aquí
+        // ninguna consulta concurrente puede volver a cachear la versión anterior
+        tokenVersionCache.invalidar(principal.getId());
+        tokenCache.invalidarUsuario(principal.getUsername());
+    }
+
+    /**
+     * Renueva el access token con un refresh token (rotándolo), sin verificar de nuevo la contraseña
+     */
+    public AuthResponse refresh(RefreshTokenRequest refreshRequest) {
+        RefreshTokenService.Rotacion rotacion = refreshTokenService.rotar(refreshRequest.getRefreshToken())
+                .orElseThrow(() -> new RuntimeException("Refresh token inválido o expirado"));
+
+        Usuario usuario = usuarioDao.findById(rotacion.usuarioId())
+                .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
 
-        String jwt = tokenProvider.generateToken(authentication);
+        String jwt = tokenProvider.generateToken(usuario);
 
         return new AuthResponse(
                 jwt,
+                rotacion.refreshToken(),
                 usuario.getId(),
                 usuario.getUsername(),
                 usuario.getCorreo(),
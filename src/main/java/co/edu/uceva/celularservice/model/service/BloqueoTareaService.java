@@ -0,0 +1,56 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.BloqueoTareaDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Bloqueos con vencimiento guardados en la tabla bloqueos_tareas, para que una tarea programada corra
+ * en una sola de las réplicas a la vez. Tomar el bloqueo es un UPDATE condicional: solo una réplica lo logra.
+ * El vencimiento cubre el caso de una réplica que se cae con el bloqueo tomado.
+ */
+@Service
+public class BloqueoTareaService {
+
+    // Identifica a esta instancia de la aplicación como dueña de los bloqueos
+    private final String propietario = nombreHost() + "-" + UUID.randomUUID();
+
+    @Autowired
+    private BloqueoTareaDao bloqueoTareaDao;
+
+    /**
+     * Toma el bloqueo por la duración indicada (o lo renueva si ya es de esta instancia).
+     * @return false si otra instancia lo tiene y no ha vencido
+     */
+    public boolean adquirir(String nombre, Duration duracion) {
+        Instant ahora = Instant.now();
+        if (bloqueoTareaDao.adquirir(nombre, propietario, ahora, ahora.plus(duracion)) == 1) {
+            return true;
+        }
+        try {
+            bloqueoTareaDao.crearSiFalta(nombre, Instant.EPOCH);
+        } catch (DataIntegrityViolationException e) {
+            // Otra instancia creó la fila al mismo tiempo; el UPDATE siguiente decide quién se queda el bloqueo
+        }
+        return bloqueoTareaDao.adquirir(nombre, propietario, ahora, ahora.plus(duracion)) == 1;
+    }
+
+    public void liberar(String nombre) {
+        bloqueoTareaDao.liberar(nombre, propietario, Instant.now());
+    }
+
+    private static String nombreHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "desconocido";
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Marca como VENCIDA las cuotas guardadas que siguen PENDIENTE después de su fecha programada.
+ * Corre periódicamente en una sola réplica (bloqueo en la base de datos) y actualiza con UPDATEs por rangos
+ * de id acotados, cada uno en su propia transacción, sin cargar las cuotas en memoria.
+ * Las metas con cuotas virtuales no necesitan este proceso: su vencimiento se calcula al leerlas.
+ */
+@Service
+public class CuotasVencidasService {
+
+    private static final Logger log = LoggerFactory.getLogger(CuotasVencidasService.class);
+
+    private static final String TAREA = "cuotas-vencidas";
+
+    // Ids por UPDATE: acota las filas bloqueadas y el tamaño de cada transacción
+    @Value("${app.cuotas.vencidas.lote:5000}")
+    private long tamanoLote;
+
+    // Vigencia del bloqueo; se renueva con cada lote
+    @Value("${app.cuotas.vencidas.bloqueo:600000}")
+    private long duracionBloqueoMs;
+
+    @Autowired
+    private CuotaAhorroDao cuotaAhorroDao;
+
+    @Autowired
+    private BloqueoTareaService bloqueoTareaService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // El bloqueo de la base es de la instancia; esto evita además dos ejecuciones a la vez dentro de ella
+    private final AtomicBoolean enEjecucion = new AtomicBoolean();
+
+    private Timer duracion;
+    private DistributionSummary filas;
+    private Counter omitidas;
+
+    @PostConstruct
+    void registrarMetricas() {
+        duracion = Timer.builder("metas.cuotas.vencidas.duration")
+                .description("Duración de cada ejecución de la actualización de cuotas vencidas")
+                .register(meterRegistry);
+        filas = DistributionSummary.builder("metas.cuotas.vencidas.rows")
+                .description("Cuotas marcadas como vencidas en cada ejecución")
+                .register(meterRegistry);
+        omitidas = Counter.builder("metas.cuotas.vencidas.skipped")
+                .description("Ejecuciones omitidas porque ya había una en curso (en esta u otra réplica)")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.cuotas.vencidas.cron:0 15 0 * * *}")
+    public void ejecutarProgramado() {
+        actualizar();
+    }
+
+    /**
+     * Marca las cuotas vencidas hasta hoy
+     * @return si se ejecutó (o si otra réplica tenía el bloqueo), si se interrumpió por perder el bloqueo,
+     * filas actualizadas, lotes y duración en ms
+     */
+    public Map<String, Object> actualizar() {
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        if (!enEjecucion.compareAndSet(false, true)) {
+            omitidas.increment();
+            resultado.put("ejecutada", false);
+            resultado.put("message", "La actualización ya se está ejecutando");
+            return resultado;
+        }
+        try {
+            if (!bloqueoTareaService.adquirir(TAREA, Duration.ofMillis(duracionBloqueoMs))) {
+                omitidas.increment();
+                resultado.put("ejecutada", false);
+                resultado.put("message", "La actualización ya se está ejecutando en otra instancia");
+                return resultado;
+            }
+            return ejecutar(resultado);
+        } finally {
+            enEjecucion.set(false);
+        }
+    }
+
+    private Map<String, Object> ejecutar(Map<String, Object> resultado) {
+        long inicio = System.nanoTime();
+        int actualizadas = 0;
+        int lotes = 0;
+        boolean interrumpida = false;
+        try {
+            LocalDate hoy = LocalDate.now();
+            CuotaAhorroDao.RangoIds rango = cuotaAhorroDao.findRangoIdsPendientesAntesDe(hoy);
+            if (rango != null && rango.getDesde() != null) {
+                for (long desde = rango.getDesde(); desde <= rango.getHasta(); desde += tamanoLote) {
+                    // Se renueva antes de cada lote siguiente: si el bloqueo venció y lo tomó otra réplica, esta deja de actualizar
+                    if (lotes > 0 && !bloqueoTareaService.adquirir(TAREA, Duration.ofMillis(duracionBloqueoMs))) {
+                        interrumpida = true;
+                        break;
+                    }
+                    actualizadas += cuotaAhorroDao.marcarVencidas(hoy, desde, desde + tamanoLote - 1);
+                    lotes++;
+                }
+            }
+        } finally {
+            // liberar solo borra el bloqueo si sigue siendo de esta instancia: si otra réplica lo tomó, no se toca
+            bloqueoTareaService.liberar(TAREA);
+        }
+
+        long duracionNs = System.nanoTime() - inicio;
+        duracion.record(Duration.ofNanos(duracionNs));
+        filas.record(actualizadas);
+        if (interrumpida) {
+            log.warn("Cuotas vencidas: interrumpida tras {} lotes ({} actualizadas), el bloqueo pasó a otra instancia",
+                    lotes, actualizadas);
+            resultado.put("message", "La actualización se interrumpió: el bloqueo pasó a otra instancia");
+        } else {
+            log.info("Cuotas vencidas: {} actualizadas en {} lotes ({} ms)", actualizadas, lotes, duracionNs / 1_000_000);
+        }
+
+        resultado.put("ejecutada", true);
+        resultado.put("interrumpida", interrumpida);
+        resultado.put("actualizadas", actualizadas);
+        resultado.put("lotes", lotes);
+        resultado.put("duracionMs", duracionNs / 1_000_000);
+        return resultado;
+    }
+}
@@ -0,0 +1,199 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.GastoDao;
+import co.edu.uceva.celularservice.model.dao.IngresoDao;
+import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
+import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.util.CronogramaCuotas;
+import co.edu.uceva.celularservice.model.util.Csv;
+import co.edu.uceva.celularservice.model.util.Dinero;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exporta todos los movimientos de un usuario (ingresos, gastos, metas y cuotas) escribiendo fila por fila
+ * en la respuesta. Cada tabla se lee con un cursor de la base de datos y cada entidad se saca del contexto
+ * de persistencia apenas se escribe, así que la memoria usada no depende de la cantidad de datos.
+ */
+@Service
+public class ExportacionService {
+
+    public enum Formato {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Formato(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Formato de(String valor) {
+            return Arrays.stream(values())
+                    .filter(f -> f.extension.equalsIgnoreCase(valor))
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Formato no soportado: " + valor + ". Opciones: ndjson, csv"));
+        }
+    }
+
+    /**
+     * Fila del archivo exportado; las mismas columnas para los cuatro tipos de registro
+     * (metas: valor = monto objetivo y fecha = fecha de inicio; cuotas: fecha = fecha programada y, en las metas con
+     * cuotas virtuales, sin id las que no se han pagado)
+     */
+    record Fila(String tipo, Long id, String nombre, BigDecimal valor, String estado, LocalDate fecha,
+                Long metaAhorroId, Integer numeroCuota) {
+    }
+
+    private static final String CABECERA_CSV = "tipo,id,nombre,valor,estado,fecha,meta_ahorro_id,numero_cuota";
+
+    @Autowired
+    private IngresoDao ingresoDao;
+
+    @Autowired
+    private GastoDao gastoDao;
+
+    @Autowired
+    private MetaAhorroDao metaAhorroDao;
+
+    @Autowired
+    private CuotaAhorroDao cuotaAhorroDao;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Escribe los movimientos del usuario en la salida. La transacción (de solo lectura) se mantiene abierta
+     * mientras se escribe porque los cursores de la base de datos solo viven dentro de ella.
+     */
+    @Transactional(readOnly = true)
+    public void exportar(Long usuarioId, Formato formato, OutputStream salida) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8));
+        if (formato == Formato.CSV) {
+            writer.write(CABECERA_CSV);
+            writer.write('\n');
+        }
+        try {
+            escribir(ingresoDao.streamByUsuarioId(usuarioId), i -> new Fila("ingreso", i.getId(), i.getNombreIngreso(),
+                    Dinero.aMonto(i.getValorIngresoCentavos()), i.getEstadoIngreso(), i.getFecha(), null, null), formato, writer);
+            escribir(gastoDao.streamByUsuarioId(usuarioId), g -> new Fila("gasto", g.getId(), g.getNombreGasto(),
+                    Dinero.aMonto(g.getValorGastoCentavos()), g.getEstadoGasto(), g.getFecha(), null, null), formato, writer);
+            // Las metas con cuotas virtuales se guardan (ya separadas del contexto) para escribir su cronograma al final
+            List<MetaAhorro> metasVirtuales = new ArrayList<>();
+            escribir(metaAhorroDao.streamByUsuarioId(usuarioId), m -> {
+                if (m.isCuotasVirtuales()) {
+                    metasVirtuales.add(m);
+                }
+                return new Fila("meta", m.getId(), m.getNombreMeta(), Dinero.aMonto(m.getMontoObjetivoCentavos()),
+                        m.getEstado(), m.getFechaInicio(), null, null);
+            }, formato, writer);
+            // getMetaAhorro().getId() no inicializa el proxy de la meta
+            escribir(cuotaAhorroDao.streamByUsuarioId(usuarioId), c -> filaCuota(c, c.getMetaAhorro().getId()), formato, writer);
+            for (MetaAhorro meta : metasVirtuales) {
+                escribirCronograma(meta, formato, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private <T> void escribir(Stream<T> entidades, Function<T, Fila> aFila, Formato formato, Writer writer) {
+        try (entidades) {
+            entidades.forEach(entidad -> {
+                Fila fila = aFila.apply(entidad);
+                entityManager.detach(entidad);
+                escribirFila(fila, formato, writer);
+            });
+        }
+    }
+
+    // Cronograma completo de una meta con cuotas virtuales: solo las pagadas se leen de la base de datos
+    private void escribirCronograma(MetaAhorro meta, Formato formato, Writer writer) {
+        Map<Integer, CuotaAhorro> pagadas = new HashMap<>();
+        for (CuotaAhorro cuota : cuotaAhorroDao.findByMetaAhorroId(meta.getId())) {
+            pagadas.put(cuota.getNumeroCuota(), cuota);
+            entityManager.detach(cuota);
+        }
+        CronogramaCuotas cronograma = meta.getCronograma();
+        LocalDate hoy = LocalDate.now();
+        for (int numero = 1; numero <= meta.getNumeroCuotas(); numero++) {
+            CuotaAhorro cuota = meta.cuotaDelCronograma(cronograma, numero, pagadas.get(numero), hoy);
+            escribirFila(filaCuota(cuota, meta.getId()), formato, writer);
+        }
+    }
+
+    private Fila filaCuota(CuotaAhorro cuota, Long metaAhorroId) {
+        return new Fila("cuota", cuota.getId(), null, Dinero.aMonto(cuota.getMontoCuotaCentavos()), cuota.getEstado(),
+                cuota.getFechaProgramada(), metaAhorroId, cuota.getNumeroCuota());
+    }
+
+    private void escribirFila(Fila fila, Formato formato, Writer writer) {
+        try {
+            if (formato == Formato.CSV) {
+                escribirCsv(fila, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(fila));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            // Normalmente el cliente cortó la descarga: se deja de leer el cursor
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void escribirCsv(Fila fila, Writer writer) throws IOException {
+        writer.write(fila.tipo());
+        writer.write(',');
+        writer.write(fila.id() != null ? fila.id().toString() : "");
+        writer.write(',');
+        writer.write(Csv.campo(fila.nombre()));
+        writer.write(',');
+        writer.write(fila.valor() != null ? fila.valor().toPlainString() : "");
+        writer.write(',');
+        writer.write(Csv.campo(fila.estado()));
+        writer.write(',');
+        writer.write(fila.fecha() != null ? fila.fecha().toString() : "");
+        writer.write(',');
+        writer.write(fila.metaAhorroId() != null ? fila.metaAhorroId().toString() : "");
+        writer.write(',');
+        writer.write(fila.numeroCuota() != null ? fila.numeroCuota().toString() : "");
+        writer.write('\n');
+    }
+}
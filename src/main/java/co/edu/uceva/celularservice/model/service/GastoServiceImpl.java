@@ -1,12 +1,17 @@
 package co.edu.uceva.celularservice.model.service;
 
 import co.edu.uceva.celularservice.model.dao.GastoDao;
+import co.edu.uceva.celularservice.model.dto.GastoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Gasto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class GastoServiceImpl implements IGastoService {
@@ -14,12 +19,23 @@ public class GastoServiceImpl implements IGastoService {
     @Autowired
     private GastoDao gastoDao;
 
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
     @Override
     @Transactional(readOnly = true)
     public List<Gasto> listar() {
         return (List<Gasto>) gastoDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Pagina<GastoResumen> listarPagina(Long despuesDe, int limite) {
+        // Se pide una fila de más para saber si hay otra página
+        List<GastoResumen> filas = gastoDao.findResumenesDespuesDe(despuesDe != null ? despuesDe : 0L, Limit.of(limite + 1));
+        return Pagina.de(filas, limite, GastoResumen::getId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Gasto findById(Long id) {
@@ -29,13 +45,38 @@ public class GastoServiceImpl implements IGastoService {
     @Override
     @Transactional
     public Gasto save(Gasto gasto) {
-        return gastoDao.save(gasto);
+        // Valores anteriores (si es una actualización) para ajustar el resumen del usuario con la diferencia
+        Gasto anterior = gasto.getId() != null ? gastoDao.findById(gasto.getId()).orElse(null) : null;
+        Long usuarioAnterior = anterior != null ? anterior.getUsuario().getId() : null;
+        String estadoAnterior = anterior != null ? anterior.getEstadoGasto() : null;
+        Long valorAnterior = anterior != null ? anterior.getValorGastoCentavos() : null;
+        LocalDate fechaAnterior = anterior != null ? anterior.getFecha() : null;
+        if (gasto.getFecha() == null) {
+            gasto.setFecha(fechaAnterior != null ? fechaAnterior : LocalDate.now());
+        }
+
+        Gasto guardado = gastoDao.save(gasto);
+        Long usuarioNuevo = guardado.getUsuario() != null ? guardado.getUsuario().getId() : null;
+
+        if (Objects.equals(usuarioAnterior, usuarioNuevo)) {
+            resumenUsuarioService.ajustarGasto(usuarioNuevo, estadoAnterior, valorAnterior, fechaAnterior,
+                    guardado.getEstadoGasto(), guardado.getValorGastoCentavos(), guardado.getFecha());
+        } else {
+            resumenUsuarioService.ajustarGasto(usuarioAnterior, estadoAnterior, valorAnterior, fechaAnterior, null, null, null);
+            resumenUsuarioService.ajustarGasto(usuarioNuevo, null, null, null,
+                    guardado.getEstadoGasto(), guardado.getValorGastoCentavos(), guardado.getFecha());
+        }
+        return guardado;
     }
 
     @Override
     @Transactional
     public void delete(Gasto gasto) {
-        gastoDao.delete(gasto);
+        gastoDao.findById(gasto.getId()).ifPresent(actual -> {
+            gastoDao.delete(actual);
+            resumenUsuarioService.ajustarGasto(actual.getUsuario().getId(), actual.getEstadoGasto(),
+                    actual.getValorGastoCentavos(), actual.getFecha(), null, null, null);
+        });
     }
 
     @Override
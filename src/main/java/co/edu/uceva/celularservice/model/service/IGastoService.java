@@ -1,5 +1,7 @@
 package co.edu.uceva.celularservice.model.service;
 
+import co.edu.uceva.celularservice.model.dto.GastoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Gasto;
 
 import java.util.List;
@@ -8,6 +10,8 @@ public interface IGastoService {
     
     List<Gasto> listar();
     
+    Pagina<GastoResumen> listarPagina(Long despuesDe, int limite);
+    
     Gasto findById(Long id);
     
     Gasto save(Gasto gasto);
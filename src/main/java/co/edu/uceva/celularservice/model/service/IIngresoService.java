@@ -1,5 +1,7 @@
 package co.edu.uceva.celularservice.model.service;
 
+import co.edu.uceva.celularservice.model.dto.IngresoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Ingreso;
 
 import java.util.List;
@@ -8,6 +10,8 @@ public interface IIngresoService {
     
     List<Ingreso> listar();
     
+    Pagina<IngresoResumen> listarPagina(Long despuesDe, int limite);
+    
     Ingreso findById(Long id);
     
     Ingreso save(Ingreso ingreso);
@@ -2,9 +2,11 @@ package co.edu.uceva.celularservice.model.service;
 
 import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
 import co.edu.uceva.celularservice.model.dto.MetaAhorroResponse;
+import co.edu.uceva.celularservice.model.dto.PagarCuotasRequest;
 import co.edu.uceva.celularservice.model.entities.MetaAhorro;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IMetaAhorroService {
     
@@ -20,9 +22,18 @@ public interface IMetaAhorroService {
     // Obtener respuesta detallada de una meta
     MetaAhorroResponse obtenerDetallesMeta(Long metaId);
     
-    // Pagar una cuota
+    // Obtener la respuesta detallada de todas las metas de un usuario
+    List<MetaAhorroResponse> obtenerDetallesMetasPorUsuario(Long usuarioId);
+    
+    // Pagar una cuota por su id
     MetaAhorro pagarCuota(Long metaId, Long cuotaId);
     
+    // Pagar una cuota por su número dentro de la meta
+    MetaAhorro pagarCuotaPorNumero(Long metaId, Integer numeroCuota);
+    
+    // Pagar varias cuotas (por id o hasta cubrir un monto) en una sola transacción
+    MetaAhorro pagarCuotas(Long metaId, PagarCuotasRequest request);
+    
     // Cancelar una meta
     void cancelarMeta(Long metaId);
     
@@ -33,5 +44,5 @@ public interface IMetaAhorroService {
     List<MetaAhorro> listarMetasActivas(Long usuarioId);
     
     // Actualizar estados de cuotas vencidas
-    void actualizarCuotasVencidas();
+    Map<String, Object> actualizarCuotasVencidas();
 }
@@ -1,11 +1,20 @@
 package co.edu.uceva.celularservice.model.service;
 
+import co.edu.uceva.celularservice.model.dto.Pagina;
+import co.edu.uceva.celularservice.model.dto.ResumenFinanciero;
+import co.edu.uceva.celularservice.model.dto.TotalMensual;
+import co.edu.uceva.celularservice.model.dto.TotalesUsuario;
+import co.edu.uceva.celularservice.model.dto.UsuarioResumen;
 import co.edu.uceva.celularservice.model.entities.Usuario;
 
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 public interface IUsuarioService {
     List<Usuario> listar();
+    Pagina<UsuarioResumen> listarPagina(Long despuesDe, int limite, Set<String> expand); //Página de usuarios (keyset) con las colecciones pedidas en expand
     void delete(Usuario usuario); //Elimina un usuario de la base de datos
     Usuario save(Usuario usuario); //Guarda un usuario y me retorna un objeto de tipo Usuario
     Usuario findById(Long id); //Busca un usuario por su id y me retorna un objeto de tipo Usuario
@@ -15,4 +24,7 @@ public interface IUsuarioService {
     Double calcularTotalIngresos(Long usuarioId); //Calcula el total de ingresos de un usuario
     Double calcularTotalGastos(Long usuarioId); //Calcula el total de gastos de un usuario
     Double calcularBalance(Long usuarioId); //Calcula el balance (ingresos - gastos) de un usuario
+    Optional<TotalesUsuario> obtenerTotales(Long usuarioId); //Totales y balance en centavos en una consulta (vacío si el usuario no existe)
+    Optional<ResumenFinanciero> obtenerResumenFinanciero(Long usuarioId); //Resumen financiero completo en una consulta
+    Optional<List<TotalMensual>> obtenerSerieMensual(Long usuarioId, YearMonth desde, YearMonth hasta); //Ingresos, gastos y balance mes a mes (vacío si el usuario no existe)
 }
@@ -0,0 +1,279 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dto.ResultadoImportacion;
+import co.edu.uceva.celularservice.model.entities.Gasto;
+import co.edu.uceva.celularservice.model.entities.Ingreso;
+import co.edu.uceva.celularservice.model.util.Csv;
+import co.edu.uceva.celularservice.model.util.Dinero;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Importación masiva de gastos e ingresos (sincronización de la app móvil). Todas las filas se validan
+ * en una pasada; las válidas se insertan con JDBC en lotes acotados (un viaje a la base de datos por lote
+ * en lugar de uno por fila) y el resumen del usuario se ajusta una vez por estado y mes, no por fila.
+ * Las filas inválidas se reportan sin impedir que se inserten las demás.
+ */
+@Service
+public class ImportacionService {
+
+    private static final int MAX_NOMBRE = 255;
+
+    // Ids que reserva cada llamada a la secuencia: igual al allocationSize de las entidades Gasto e Ingreso
+    private static final int IDS_POR_SECUENCIA = 50;
+
+    @Value("${app.importacion.max-filas:10000}")
+    private int maxFilas;
+
+    @Value("${app.importacion.lote:500}")
+    private int tamanoLote;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
+    /**
+     * Tabla destino; las columnas y la secuencia son las de las entidades Gasto e Ingreso
+     */
+    private enum Tabla {
+        GASTOS("gastos_seq", "INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (?, ?, ?, ?, ?, ?)"),
+        INGRESOS("ingresos_seq", "INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (?, ?, ?, ?, ?, ?)");
+
+        private final String secuencia;
+        private final String insert;
+
+        Tabla(String secuencia, String insert) {
+            this.secuencia = secuencia;
+            this.insert = insert;
+        }
+    }
+
+    /**
+     * Fila recibida, ya convertida (valor en centavos). error != null si no se pudo leer.
+     */
+    private record Movimiento(int fila, String nombre, Long centavos, String estado, LocalDate fecha, String error) {
+    }
+
+    @Transactional
+    public ResultadoImportacion importarGastos(Long usuarioId, List<Gasto> gastos) {
+        List<Movimiento> movimientos = new ArrayList<>(gastos.size());
+        for (int i = 0; i < gastos.size(); i++) {
+            Gasto g = gastos.get(i);
+            movimientos.add(g == null
+                    ? new Movimiento(i + 1, null, null, null, null, "Fila vacía")
+                    : new Movimiento(i + 1, g.getNombreGasto(), g.getValorGastoCentavos(), g.getEstadoGasto(), g.getFecha(), null));
+        }
+        return importar(Tabla.GASTOS, usuarioId, movimientos);
+    }
+
+    @Transactional
+    public ResultadoImportacion importarIngresos(Long usuarioId, List<Ingreso> ingresos) {
+        List<Movimiento> movimientos = new ArrayList<>(ingresos.size());
+        for (int i = 0; i < ingresos.size(); i++) {
+            Ingreso ing = ingresos.get(i);
+            movimientos.add(ing == null
+                    ? new Movimiento(i + 1, null, null, null, null, "Fila vacía")
+                    : new Movimiento(i + 1, ing.getNombreIngreso(), ing.getValorIngresoCentavos(), ing.getEstadoIngreso(), ing.getFecha(), null));
+        }
+        return importar(Tabla.INGRESOS, usuarioId, movimientos);
+    }
+
+    /**
+     * Importa gastos desde un CSV con cabecera: nombre,valor,estado[,fecha] (en cualquier orden)
+     */
+    @Transactional
+    public ResultadoImportacion importarGastosCsv(Long usuarioId, String csv) {
+        return importar(Tabla.GASTOS, usuarioId, leerCsv(csv));
+    }
+
+    /**
+     * Importa ingresos desde un CSV con cabecera: nombre,valor,estado[,fecha] (en cualquier orden)
+     */
+    @Transactional
+    public ResultadoImportacion importarIngresosCsv(Long usuarioId, String csv) {
+        return importar(Tabla.INGRESOS, usuarioId, leerCsv(csv));
+    }
+
+    private ResultadoImportacion importar(Tabla tabla, Long usuarioId, List<Movimiento> movimientos) {
+        if (movimientos.size() > maxFilas) {
+            throw new RuntimeException("Se permiten como máximo " + maxFilas + " filas por importación");
+        }
+
+        // Validación de todas las filas antes de escribir
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        List<Movimiento> validos = new ArrayList<>(movimientos.size());
+        List<ResultadoImportacion.Fila> filasValidas = new ArrayList<>(movimientos.size());
+        LocalDate hoy = LocalDate.now();
+        for (Movimiento m : movimientos) {
+            String error = m.error() != null ? m.error() : validar(m);
+            ResultadoImportacion.Fila fila = new ResultadoImportacion.Fila(m.fila(), null, error);
+            resultado.getFilas().add(fila);
+            if (error == null) {
+                validos.add(new Movimiento(m.fila(), m.nombre().trim(), m.centavos(),
+                        m.estado().trim().toLowerCase(Locale.ROOT), m.fecha() != null ? m.fecha() : hoy, null));
+                filasValidas.add(fila);
+            }
+        }
+
+        for (int desde = 0; desde < validos.size(); desde += tamanoLote) {
+            int hasta = Math.min(desde + tamanoLote, validos.size());
+            List<Long> ids = insertarLote(tabla, usuarioId, validos.subList(desde, hasta));
+            for (int i = 0; i < ids.size(); i++) {
+                filasValidas.get(desde + i).setId(ids.get(i));
+            }
+        }
+        ajustarResumen(tabla, usuarioId, validos);
+
+        resultado.setRecibidas(movimientos.size());
+        resultado.setInsertadas(validos.size());
+        resultado.setRechazadas(movimientos.size() - validos.size());
+        return resultado;
+    }
+
+    private String validar(Movimiento m) {
+        if (m.nombre() == null || m.nombre().isBlank()) {
+            return "El nombre es obligatorio";
+        }
+        if (m.nombre().trim().length() > MAX_NOMBRE) {
+            return "El nombre supera " + MAX_NOMBRE + " caracteres";
+        }
+        if (m.centavos() == null) {
+            return "El valor es obligatorio";
+        }
+        if (m.centavos() <= 0) {
+            return "El valor debe ser mayor a 0";
+        }
+        if (m.estado() == null || !(m.estado().trim().equalsIgnoreCase("fijo") || m.estado().trim().equalsIgnoreCase("variable"))) {
+            return "El estado debe ser fijo o variable";
+        }
+        return null;
+    }
+
+    // Un executeBatch por lote, con los ids reservados antes en la misma secuencia que usa Hibernate
+    private List<Long> insertarLote(Tabla tabla, Long usuarioId, List<Movimiento> lote) {
+        List<Long> ids = reservarIds(tabla.secuencia, lote.size());
+        jdbcTemplate.batchUpdate(tabla.insert, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Movimiento m = lote.get(i);
+                ps.setLong(1, ids.get(i));
+                ps.setString(2, m.nombre());
+                ps.setLong(3, m.centavos());
+                ps.setString(4, m.estado());
+                ps.setDate(5, Date.valueOf(m.fecha()));
+                ps.setLong(6, usuarioId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lote.size();
+            }
+        });
+        return ids;
+    }
+
+    // Cada valor v de la secuencia reserva los ids v-49..v, igual que el optimizador pooled de Hibernate,
+    // así que los ids de la importación nunca chocan con los que asigna Hibernate
+    private List<Long> reservarIds(String secuencia, int cantidad) {
+        List<Long> ids = new ArrayList<>(cantidad);
+        while (ids.size() < cantidad) {
+            long hasta = jdbcTemplate.queryForObject("SELECT nextval('" + secuencia + "')", Long.class);
+            for (long id = Math.max(1, hasta - IDS_POR_SECUENCIA + 1); id <= hasta && ids.size() < cantidad; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Un ajuste por combinación de estado y mes: el resumen queda igual que con un alta por fila
+    private void ajustarResumen(Tabla tabla, Long usuarioId, List<Movimiento> validos) {
+        Map<String, Map<YearMonth, Long>> sumas = new HashMap<>();
+        for (Movimiento m : validos) {
+            sumas.computeIfAbsent(m.estado(), e -> new HashMap<>())
+                    .merge(YearMonth.from(m.fecha()), m.centavos(), Math::addExact);
+        }
+        sumas.forEach((estado, meses) -> meses.forEach((mes, total) -> {
+            if (tabla == Tabla.GASTOS) {
+                resumenUsuarioService.ajustarGasto(usuarioId, null, null, null, estado, total, mes.atDay(1));
+            } else {
+                resumenUsuarioService.ajustarIngreso(usuarioId, null, null, null, estado, total, mes.atDay(1));
+            }
+        }));
+    }
+
+    private List<Movimiento> leerCsv(String csv) {
+        List<List<String>> registros = Csv.leer(csv != null ? csv : "");
+        if (registros.isEmpty()) {
+            throw new RuntimeException("El CSV está vacío");
+        }
+        List<String> cabecera = registros.get(0);
+        int colNombre = columna(cabecera, "nombre", true);
+        int colValor = columna(cabecera, "valor", true);
+        int colEstado = columna(cabecera, "estado", true);
+        int colFecha = columna(cabecera, "fecha", false);
+
+        List<Movimiento> movimientos = new ArrayList<>(registros.size() - 1);
+        for (int i = 1; i < registros.size(); i++) {
+            List<String> r = registros.get(i);
+            String nombre = valor(r, colNombre);
+            String estado = valor(r, colEstado);
+            Long centavos = null;
+            LocalDate fecha = null;
+            String error = null;
+            String textoValor = valor(r, colValor);
+            String textoFecha = valor(r, colFecha);
+            try {
+                centavos = textoValor != null ? Dinero.aCentavos(new BigDecimal(textoValor)) : null;
+            } catch (NumberFormatException | ArithmeticException e) {
+                error = "Valor inválido: " + textoValor;
+            }
+            try {
+                fecha = textoFecha != null ? LocalDate.parse(textoFecha) : null;
+            } catch (DateTimeParseException e) {
+                error = error != null ? error : "Fecha inválida (formato yyyy-MM-dd): " + textoFecha;
+            }
+            movimientos.add(new Movimiento(i, nombre, centavos, estado, fecha, error));
+        }
+        return movimientos;
+    }
+
+    private int columna(List<String> cabecera, String nombre, boolean obligatoria) {
+        for (int i = 0; i < cabecera.size(); i++) {
+            if (cabecera.get(i).trim().equalsIgnoreCase(nombre)) {
+                return i;
+            }
+        }
+        if (obligatoria) {
+            throw new RuntimeException("Falta la columna '" + nombre + "' en la cabecera del CSV (nombre,valor,estado[,fecha])");
+        }
+        return -1;
+    }
+
+    // Campo recortado, o null si no existe o está vacío
+    private String valor(List<String> registro, int columna) {
+        if (columna < 0 || columna >= registro.size()) {
+            return null;
+        }
+        String valor = registro.get(columna).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+}
@@ -1,12 +1,17 @@
 package co.edu.uceva.celularservice.model.service;
 
 import co.edu.uceva.celularservice.model.dao.IngresoDao;
+import co.edu.uceva.celularservice.model.dto.IngresoResumen;
+import co.edu.uceva.celularservice.model.dto.Pagina;
 import co.edu.uceva.celularservice.model.entities.Ingreso;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 public class IngresoServiceImpl implements IIngresoService {
@@ -14,12 +19,23 @@ public class IngresoServiceImpl implements IIngresoService {
     @Autowired
     private IngresoDao ingresoDao;
 
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
     @Override
     @Transactional(readOnly = true)
     public List<Ingreso> listar() {
         return (List<Ingreso>) ingresoDao.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Pagina<IngresoResumen> listarPagina(Long despuesDe, int limite) {
+        // Se pide una fila de más para saber si hay otra página
+        List<IngresoResumen> filas = ingresoDao.findResumenesDespuesDe(despuesDe != null ? despuesDe : 0L, Limit.of(limite + 1));
+        return Pagina.de(filas, limite, IngresoResumen::getId);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Ingreso findById(Long id) {
@@ -29,13 +45,38 @@ public class IngresoServiceImpl implements IIngresoService {
     @Override
     @Transactional
     public Ingreso save(Ingreso ingreso) {
-        return ingresoDao.save(ingreso);
+        // Valores anteriores (si es una actualización) para ajustar el resumen del usuario con la diferencia
+        Ingreso anterior = ingreso.getId() != null ? ingresoDao.findById(ingreso.getId()).orElse(null) : null;
+        Long usuarioAnterior = anterior != null ? anterior.getUsuario().getId() : null;
+        String estadoAnterior = anterior != null ? anterior.getEstadoIngreso() : null;
+        Long valorAnterior = anterior != null ? anterior.getValorIngresoCentavos() : null;
+        LocalDate fechaAnterior = anterior != null ? anterior.getFecha() : null;
+        if (ingreso.getFecha() == null) {
+            ingreso.setFecha(fechaAnterior != null ? fechaAnterior : LocalDate.now());
+        }
+
+        Ingreso guardado = ingresoDao.save(ingreso);
+        Long usuarioNuevo = guardado.getUsuario() != null ? guardado.getUsuario().getId() : null;
+
+        if (Objects.equals(usuarioAnterior, usuarioNuevo)) {
+            resumenUsuarioService.ajustarIngreso(usuarioNuevo, estadoAnterior, valorAnterior, fechaAnterior,
+                    guardado.getEstadoIngreso(), guardado.getValorIngresoCentavos(), guardado.getFecha());
+        } else {
+            resumenUsuarioService.ajustarIngreso(usuarioAnterior, estadoAnterior, valorAnterior, fechaAnterior, null, null, null);
+            resumenUsuarioService.ajustarIngreso(usuarioNuevo, null, null, null,
+                    guardado.getEstadoIngreso(), guardado.getValorIngresoCentavos(), guardado.getFecha());
+        }
+        return guardado;
     }
 
     @Override
     @Transactional
     public void delete(Ingreso ingreso) {
-        ingresoDao.delete(ingreso);
+        ingresoDao.findById(ingreso.getId()).ifPresent(actual -> {
+            ingresoDao.delete(actual);
+            resumenUsuarioService.ajustarIngreso(actual.getUsuario().getId(), actual.getEstadoIngreso(),
+                    actual.getValorIngresoCentavos(), actual.getFecha(), null, null, null);
+        });
     }
 
     @Override
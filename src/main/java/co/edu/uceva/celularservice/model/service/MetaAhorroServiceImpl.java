@@ -4,21 +4,32 @@ import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
 import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
 import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
 import co.edu.uceva.celularservice.model.dto.MetaAhorroResponse;
+import co.edu.uceva.celularservice.model.dto.PagarCuotasRequest;
 import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
 import co.edu.uceva.celularservice.model.entities.MetaAhorro;
 import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.util.CronogramaCuotas;
+import co.edu.uceva.celularservice.model.util.Dinero;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class MetaAhorroServiceImpl implements IMetaAhorroService {
 
+    // Cuotas pendientes que se muestran en los detalles de una meta
+    private static final int MAX_PROXIMAS_CUOTAS = 5;
+
     @Autowired
     private MetaAhorroDao metaAhorroDao;
 
@@ -28,6 +39,12 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
     @Autowired
     private UsuarioServiceImpl usuarioService;
 
+    @Autowired
+    private ResumenFinancieroCache resumenCache;
+
+    @Autowired
+    private CuotasVencidasService cuotasVencidasService;
+
     @Override
     @Transactional
     public MetaAhorro crearMetaAhorro(Long usuarioId, CrearMetaAhorroRequest request) {
@@ -46,11 +63,17 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
             throw new RuntimeException("El número de cuotas debe ser mayor a 0");
         }
 
+        // Los montos se manejan en centavos; cada cuota debe ser de al menos un centavo
+        long montoObjetivo = Dinero.aCentavos(request.getMontoObjetivo());
+        if (montoObjetivo < request.getNumeroCuotas()) {
+            throw new RuntimeException("El monto objetivo no alcanza para el número de cuotas");
+        }
+
         // Crear la meta de ahorro
         MetaAhorro meta = new MetaAhorro();
         meta.setNombreMeta(request.getNombreMeta());
-        meta.setMontoObjetivo(request.getMontoObjetivo());
-        meta.setMontoAhorrado(0.0);
+        meta.setMontoObjetivoCentavos(montoObjetivo);
+        meta.setMontoAhorradoCentavos(0L);
         meta.setNumeroCuotas(request.getNumeroCuotas());
         meta.setFrecuenciaCuota(request.getFrecuenciaCuota());
         meta.setPorcentajeBalance(request.getPorcentajeBalance());
@@ -58,73 +81,20 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
         meta.setFechaInicio(LocalDate.now());
         meta.setEstado("ACTIVA");
 
-        // Calcular valor de cada cuota
-        Double valorCuota = request.getMontoObjetivo() / request.getNumeroCuotas();
-        meta.setValorCuota(valorCuota);
-
-        // Calcular fecha de fin estimada
-        LocalDate fechaFin = calcularFechaFin(LocalDate.now(), request.getNumeroCuotas(), request.getFrecuenciaCuota());
-        meta.setFechaFinEstimada(fechaFin);
+        // Las cuotas no se guardan: fechas y montos salen del cronograma (el sobrante va a las primeras),
+        // así que crear la meta es un solo INSERT sin importar el número de cuotas
+        meta.setCuotasVirtuales(true);
+        CronogramaCuotas cronograma = meta.getCronograma();
+        meta.setValorCuotaCentavos(cronograma.monto(1));
+        meta.setFechaFinEstimada(cronograma.fechaFin());
 
         // Guardar la meta
         meta = metaAhorroDao.save(meta);
 
-        // Generar las cuotas programadas
-        generarCuotas(meta);
-
+        resumenCache.invalidar(usuarioId);
         return meta;
     }
 
-    /**
-     * Genera las cuotas programadas para una meta de ahorro
-     */
-    private void generarCuotas(MetaAhorro meta) {
-        List<CuotaAhorro> cuotas = new ArrayList<>();
-        LocalDate fechaCuota = meta.getFechaInicio();
-
-        for (int i = 1; i <= meta.getNumeroCuotas(); i++) {
-            // Calcular la fecha de la siguiente cuota
-            if (i > 1) {
-                fechaCuota = calcularSiguienteFecha(fechaCuota, meta.getFrecuenciaCuota());
-            }
-
-            CuotaAhorro cuota = new CuotaAhorro();
-            cuota.setNumeroCuota(i);
-            cuota.setMontoCuota(meta.getValorCuota());
-            cuota.setFechaProgramada(fechaCuota);
-            cuota.setEstado("PENDIENTE");
-            cuota.setMetaAhorro(meta);
-
-            cuotas.add(cuota);
-        }
-
-        cuotaAhorroDao.saveAll(cuotas);
-        meta.setCuotas(cuotas);
-    }
-
-    /**
-     * Calcula la siguiente fecha según la frecuencia
-     */
-    private LocalDate calcularSiguienteFecha(LocalDate fechaActual, String frecuencia) {
-        return switch (frecuencia.toUpperCase()) {
-            case "SEMANAL" -> fechaActual.plusWeeks(1);
-            case "QUINCENAL" -> fechaActual.plusWeeks(2);
-            case "MENSUAL" -> fechaActual.plusMonths(1);
-            default -> fechaActual.plusMonths(1);
-        };
-    }
-
-    /**
-     * Calcula la fecha de finalización de la meta
-     */
-    private LocalDate calcularFechaFin(LocalDate fechaInicio, Integer numeroCuotas, String frecuencia) {
-        LocalDate fechaFin = fechaInicio;
-        for (int i = 0; i < numeroCuotas - 1; i++) {
-            fechaFin = calcularSiguienteFecha(fechaFin, frecuencia);
-        }
-        return fechaFin;
-    }
-
     @Override
     @Transactional(readOnly = true)
     public List<MetaAhorro> listarMetasPorUsuario(Long usuarioId) {
@@ -144,13 +114,78 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
         if (meta == null) {
             throw new RuntimeException("Meta de ahorro no encontrada");
         }
+        return obtenerDetalles(List.of(meta)).get(0);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<MetaAhorroResponse> obtenerDetallesMetasPorUsuario(Long usuarioId) {
+        return obtenerDetalles(metaAhorroDao.findByUsuarioId(usuarioId));
+    }
+
+    /**
+     * Detalles de varias metas con un número fijo de consultas, sin importar cuántas metas y cuotas haya:
+     * conteo de cuotas por meta y estado, próximas cuotas pendientes de las metas anteriores (limitadas en
+     * la base de datos) y cuotas pagadas por adelantado de las metas con cuotas virtuales
+     */
+    private List<MetaAhorroResponse> obtenerDetalles(List<MetaAhorro> metas) {
+        List<MetaAhorroResponse> detalles = new ArrayList<>(metas.size());
+        if (metas.isEmpty()) {
+            return detalles;
+        }
+        List<Long> metaIds = new ArrayList<>();
+        List<Long> metasRegistradas = new ArrayList<>();
+        List<Long> metasVirtuales = new ArrayList<>();
+        for (MetaAhorro meta : metas) {
+            metaIds.add(meta.getId());
+            (meta.isCuotasVirtuales() ? metasVirtuales : metasRegistradas).add(meta.getId());
+        }
+
+        // Contar cuotas pagadas y pendientes
+        Map<Long, Map<String, Long>> conteos = new HashMap<>();
+        for (CuotaAhorroDao.ConteoCuotas conteo : cuotaAhorroDao.contarPorEstado(metaIds)) {
+            conteos.computeIfAbsent(conteo.getMetaAhorroId(), id -> new HashMap<>()).put(conteo.getEstado(), conteo.getCantidad());
+        }
+
+        // Obtener las próximas cuotas pendientes de las metas con cuotas guardadas
+        Map<Long, List<CuotaAhorro>> proximasRegistradas = new HashMap<>();
+        if (!metasRegistradas.isEmpty()) {
+            for (CuotaAhorro cuota : cuotaAhorroDao.findPrimerasPorEstado(metasRegistradas, "PENDIENTE", MAX_PROXIMAS_CUOTAS)) {
+                proximasRegistradas.computeIfAbsent(cuota.getMetaAhorro().getId(), id -> new ArrayList<>()).add(cuota);
+            }
+        }
+
+        // En las metas con cuotas virtuales, las pagadas con fecha de hoy en adelante no cuentan como pendientes
+        LocalDate hoy = LocalDate.now();
+        Map<Long, Set<Integer>> adelantadas = new HashMap<>();
+        if (!metasVirtuales.isEmpty()) {
+            for (CuotaAhorro cuota : cuotaAhorroDao.findByMetaAhorroIdInAndFechaProgramadaGreaterThanEqual(metasVirtuales, hoy)) {
+                adelantadas.computeIfAbsent(cuota.getMetaAhorro().getId(), id -> new HashSet<>()).add(cuota.getNumeroCuota());
+            }
+        }
 
+        for (MetaAhorro meta : metas) {
+            MetaAhorroResponse response = datosMeta(meta);
+            Map<String, Long> porEstado = conteos.getOrDefault(meta.getId(), Map.of());
+            response.setCuotasPagadas(porEstado.getOrDefault("PAGADA", 0L).intValue());
+            if (meta.isCuotasVirtuales()) {
+                completarCuotasVirtuales(response, meta, adelantadas.getOrDefault(meta.getId(), Set.of()), hoy);
+            } else {
+                response.setCuotasPendientes(porEstado.getOrDefault("PENDIENTE", 0L).intValue());
+                response.setProximasCuotas(proximasRegistradas.getOrDefault(meta.getId(), new ArrayList<>()));
+            }
+            detalles.add(response);
+        }
+        return detalles;
+    }
+
+    private MetaAhorroResponse datosMeta(MetaAhorro meta) {
         MetaAhorroResponse response = new MetaAhorroResponse();
         response.setId(meta.getId());
         response.setNombreMeta(meta.getNombreMeta());
         response.setMontoObjetivo(meta.getMontoObjetivo());
         response.setMontoAhorrado(meta.getMontoAhorrado());
-        response.setMontoFaltante(meta.calcularMontoFaltante());
+        response.setMontoFaltante(Dinero.aDecimal(meta.calcularCentavosFaltantes()));
         response.setProgresoPorcentaje(meta.calcularProgreso());
         response.setNumeroCuotas(meta.getNumeroCuotas());
         response.setValorCuota(meta.getValorCuota());
@@ -158,24 +193,25 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
         response.setFechaInicio(meta.getFechaInicio());
         response.setFechaFinEstimada(meta.getFechaFinEstimada());
         response.setEstado(meta.getEstado());
+        return response;
+    }
 
-        // Contar cuotas pagadas y pendientes
-        List<CuotaAhorro> todasLasCuotas = cuotaAhorroDao.findByMetaAhorroId(metaId);
-        int cuotasPagadas = (int) todasLasCuotas.stream().filter(c -> "PAGADA".equals(c.getEstado())).count();
-        int cuotasPendientes = (int) todasLasCuotas.stream().filter(c -> "PENDIENTE".equals(c.getEstado())).count();
-
-        response.setCuotasPagadas(cuotasPagadas);
-        response.setCuotasPendientes(cuotasPendientes);
-
-        // Obtener las próximas 5 cuotas pendientes
-        List<CuotaAhorro> proximasCuotas = cuotaAhorroDao
-                .findByMetaAhorroIdAndEstadoOrderByFechaProgramadaAsc(metaId, "PENDIENTE")
-                .stream()
-                .limit(5)
-                .collect(Collectors.toList());
+    /**
+     * Pendientes y próximas cuotas de una meta con cuotas virtuales, calculadas del cronograma: las que ya pasaron
+     * su fecha sin pagarse cuentan como vencidas y las pagadas por adelantado se saltan
+     */
+    private void completarCuotasVirtuales(MetaAhorroResponse response, MetaAhorro meta, Set<Integer> adelantadas, LocalDate hoy) {
+        CronogramaCuotas cronograma = meta.getCronograma();
+        int vencidas = cronograma.cuotasAntesDe(hoy);
+        response.setCuotasPendientes(meta.getNumeroCuotas() - vencidas - adelantadas.size());
+
+        List<CuotaAhorro> proximasCuotas = new ArrayList<>();
+        for (int numero = vencidas + 1; numero <= meta.getNumeroCuotas() && proximasCuotas.size() < MAX_PROXIMAS_CUOTAS; numero++) {
+            if (!adelantadas.contains(numero)) {
+                proximasCuotas.add(meta.cuotaDelCronograma(cronograma, numero, null, hoy));
+            }
+        }
         response.setProximasCuotas(proximasCuotas);
-
-        return response;
     }
 
     @Override
@@ -186,26 +222,228 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
             throw new RuntimeException("Meta de ahorro no encontrada");
         }
 
-        CuotaAhorro cuota = cuotaAhorroDao.findById(cuotaId)
-                .orElseThrow(() -> new RuntimeException("Cuota no encontrada"));
+        // cuotaId es siempre el id de una fila guardada: en las metas con cuotas virtuales solo las pagadas lo tienen
+        return registrarPago(meta, pagarCuotaRegistrada(metaId, cuotaId));
+    }
+
+    @Override
+    @Transactional
+    public MetaAhorro pagarCuotaPorNumero(Long metaId, Integer numeroCuota) {
+        MetaAhorro meta = findById(metaId);
+        if (meta == null) {
+            throw new RuntimeException("Meta de ahorro no encontrada");
+        }
+
+        long montoPagado;
+        if (meta.isCuotasVirtuales()) {
+            montoPagado = registrarPagoCuotaVirtual(meta, numeroCuota);
+        } else {
+            Long cuotaId = cuotaAhorroDao.findIdByMetaAhorroIdAndNumeroCuota(metaId, numeroCuota)
+                    .orElseThrow(() -> new RuntimeException("Cuota no encontrada"));
+            montoPagado = pagarCuotaRegistrada(metaId, cuotaId);
+        }
+        return registrarPago(meta, montoPagado);
+    }
+
+    // Actualizar monto ahorrado (y estado, si se completó) con un incremento atómico en la base de datos:
+    // dos pagos simultáneos de la misma meta suman los dos, sin leer y reescribir el monto en Java
+    private MetaAhorro registrarPago(MetaAhorro meta, long montoPagado) {
+        Long metaId = meta.getId();
+        Long usuarioId = meta.getUsuario().getId();
+        if (metaAhorroDao.sumarAhorro(metaId, montoPagado) == 0) {
+            throw new RuntimeException("Meta de ahorro no encontrada");
+        }
+
+        resumenCache.invalidar(usuarioId);
+        return findById(metaId);
+    }
+
+    // La cuota tiene su fila y se marca como pagada con un UPDATE condicional
+    private long pagarCuotaRegistrada(Long metaId, Long cuotaId) {
+        if (cuotaAhorroDao.marcarPagada(cuotaId, metaId, LocalDate.now()) == 0) {
+            CuotaAhorro cuota = cuotaAhorroDao.findById(cuotaId)
+                    .filter(c -> c.getMetaAhorro().getId().equals(metaId))
+                    .orElseThrow(() -> new RuntimeException("Cuota no encontrada"));
+            throw new RuntimeException("VENCIDA".equals(cuota.getEstado())
+                    ? "La cuota está vencida"
+                    : "La cuota ya fue pagada");
+        }
+        return cuotaAhorroDao.findMontoCentavosById(cuotaId);
+    }
+
+    // Meta con cuotas virtuales: la cuota se identifica por su número y el pago se guarda como una fila nueva.
+    // La restricción única (meta, número de cuota) impide que dos pagos simultáneos la registren dos veces
+    private long registrarPagoCuotaVirtual(MetaAhorro meta, Integer numero) {
+        if (numero == null || numero < 1 || numero > meta.getNumeroCuotas()) {
+            throw new RuntimeException("Cuota no encontrada");
+        }
+        if (cuotaAhorroDao.existsByMetaAhorroIdAndNumeroCuota(meta.getId(), numero)) {
+            throw new RuntimeException("La cuota ya fue pagada");
+        }
 
-        if (!"PENDIENTE".equals(cuota.getEstado())) {
+        CuotaAhorro cuota = cuotaVirtualPagada(meta, meta.getCronograma(), numero, LocalDate.now());
+        try {
+            cuotaAhorroDao.saveAndFlush(cuota);
+        } catch (DataIntegrityViolationException e) {
             throw new RuntimeException("La cuota ya fue pagada");
         }
+        return cuota.getMontoCuotaCentavos();
+    }
+
+    // Fila a guardar para una cuota virtual que se paga hoy
+    private CuotaAhorro cuotaVirtualPagada(MetaAhorro meta, CronogramaCuotas cronograma, int numero, LocalDate hoy) {
+        LocalDate fechaProgramada = cronograma.fecha(numero);
+        if (fechaProgramada.isBefore(hoy)) {
+            throw new RuntimeException("La cuota está vencida");
+        }
 
-        // Marcar cuota como pagada
+        CuotaAhorro cuota = new CuotaAhorro();
+        cuota.setNumeroCuota(numero);
+        cuota.setMontoCuotaCentavos(cronograma.monto(numero));
+        cuota.setFechaProgramada(fechaProgramada);
+        cuota.setMetaAhorro(meta);
         cuota.marcarComoPagada();
-        cuotaAhorroDao.save(cuota);
+        return cuota;
+    }
+
+    @Override
+    @Transactional
+    public MetaAhorro pagarCuotas(Long metaId, PagarCuotasRequest request) {
+        boolean porId = request.getCuotaIds() != null && !request.getCuotaIds().isEmpty();
+        boolean porNumero = request.getNumerosCuota() != null && !request.getNumerosCuota().isEmpty();
+        boolean porMonto = request.getMonto() != null;
+        if ((porId ? 1 : 0) + (porNumero ? 1 : 0) + (porMonto ? 1 : 0) != 1) {
+            throw new RuntimeException("Debe indicar las cuotas a pagar (por id o por número) o el monto a abonar (solo uno de los tres)");
+        }
+        if (porMonto && request.getMonto() <= 0) {
+            throw new RuntimeException("El monto debe ser mayor a 0");
+        }
+
+        MetaAhorro meta = findById(metaId);
+        if (meta == null) {
+            throw new RuntimeException("Meta de ahorro no encontrada");
+        }
+
+        LocalDate hoy = LocalDate.now();
+        long montoPagado;
+        if (porId) {
+            // Los ids son siempre de filas guardadas: en las metas con cuotas virtuales solo las pagadas lo tienen
+            Set<Long> cuotaIds = new LinkedHashSet<>(request.getCuotaIds());
+            montoPagado = pagarCuotasRegistradas(metaId,
+                    cuotasPendientes(cuotaAhorroDao.findByMetaAhorroIdAndIdIn(metaId, cuotaIds), cuotaIds.size()), hoy);
+        } else if (porNumero && meta.isCuotasVirtuales()) {
+            montoPagado = registrarPagosCuotasVirtuales(cuotasVirtualesPorNumero(meta, new LinkedHashSet<>(request.getNumerosCuota()), hoy));
+        } else if (porNumero) {
+            Set<Integer> numeros = new LinkedHashSet<>(request.getNumerosCuota());
+            montoPagado = pagarCuotasRegistradas(metaId,
+                    cuotasPendientes(cuotaAhorroDao.findByMetaAhorroIdAndNumeroCuotaIn(metaId, numeros), numeros.size()), hoy);
+        } else {
+            long montoAbono = Dinero.aCentavos(request.getMonto());
+            montoPagado = meta.isCuotasVirtuales()
+                    ? registrarPagosCuotasVirtuales(cuotasVirtualesPorMonto(meta, montoAbono, hoy))
+                    : pagarCuotasRegistradas(metaId, cuotasCubiertas(
+                            cuotaAhorroDao.findByMetaAhorroIdAndEstadoOrderByFechaProgramadaAsc(metaId, "PENDIENTE"), montoAbono), hoy);
+        }
+
+        // Un solo incremento atómico con el total de las cuotas pagadas
+        return registrarPago(meta, montoPagado);
+    }
+
+    // Cuotas guardadas pedidas (cargadas con una sola consulta): deben existir todas y seguir pendientes
+    private List<CuotaAhorro> cuotasPendientes(List<CuotaAhorro> cuotas, int pedidas) {
+        if (cuotas.size() < pedidas) {
+            throw new RuntimeException("Cuota no encontrada");
+        }
+        for (CuotaAhorro cuota : cuotas) {
+            if ("VENCIDA".equals(cuota.getEstado())) {
+                throw new RuntimeException("La cuota está vencida");
+            }
+            if (!"PENDIENTE".equals(cuota.getEstado())) {
+                throw new RuntimeException("La cuota ya fue pagada");
+            }
+        }
+        return cuotas;
+    }
+
+    // Cuotas guardadas: todas se marcan con un UPDATE condicional; si otro pago se adelantó, no se paga ninguna
+    private long pagarCuotasRegistradas(Long metaId, List<CuotaAhorro> cuotas, LocalDate hoy) {
+        List<Long> ids = cuotas.stream().map(CuotaAhorro::getId).toList();
+        if (cuotaAhorroDao.marcarPagadas(ids, metaId, hoy) != ids.size()) {
+            throw new RuntimeException("Alguna de las cuotas ya fue pagada");
+        }
+        return Dinero.sumar(cuotas, CuotaAhorro::getMontoCuotaCentavos);
+    }
+
+    // Meta con cuotas virtuales: cuotas pedidas por número
+    private List<CuotaAhorro> cuotasVirtualesPorNumero(MetaAhorro meta, Set<Integer> numerosCuota, LocalDate hoy) {
+        Set<Integer> pagadas = numerosPagados(meta.getId());
+        CronogramaCuotas cronograma = meta.getCronograma();
+        List<CuotaAhorro> cuotas = new ArrayList<>();
+        for (Integer numero : numerosCuota) {
+            if (numero == null || numero < 1 || numero > meta.getNumeroCuotas()) {
+                throw new RuntimeException("Cuota no encontrada");
+            }
+            if (pagadas.contains(numero)) {
+                throw new RuntimeException("La cuota ya fue pagada");
+            }
+            cuotas.add(cuotaVirtualPagada(meta, cronograma, numero, hoy));
+        }
+        return cuotas;
+    }
 
-        // Actualizar monto ahorrado en la meta
-        meta.setMontoAhorrado(meta.getMontoAhorrado() + cuota.getMontoCuota());
+    // Meta con cuotas virtuales: primeras cuotas no vencidas ni pagadas que el monto cubre completas
+    private List<CuotaAhorro> cuotasVirtualesPorMonto(MetaAhorro meta, long montoAbono, LocalDate hoy) {
+        Set<Integer> pagadas = numerosPagados(meta.getId());
+        CronogramaCuotas cronograma = meta.getCronograma();
+        List<CuotaAhorro> pendientes = new ArrayList<>();
+        long acumulado = 0;
+        for (int numero = cronograma.cuotasAntesDe(hoy) + 1; numero <= meta.getNumeroCuotas() && acumulado <= montoAbono; numero++) {
+            if (!pagadas.contains(numero)) {
+                CuotaAhorro cuota = cuotaVirtualPagada(meta, cronograma, numero, hoy);
+                pendientes.add(cuota);
+                acumulado += cuota.getMontoCuotaCentavos();
+            }
+        }
+        return cuotasCubiertas(pendientes, montoAbono);
+    }
 
-        // Verificar si se completó la meta
-        if (meta.estaCompletada()) {
-            meta.setEstado("COMPLETADA");
+    // Las filas se insertan en lote; la restricción única rechaza las que otro pago registró a la vez
+    private long registrarPagosCuotasVirtuales(List<CuotaAhorro> cuotas) {
+        try {
+            cuotaAhorroDao.saveAllAndFlush(cuotas);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Alguna de las cuotas ya fue pagada");
         }
+        return Dinero.sumar(cuotas, CuotaAhorro::getMontoCuotaCentavos);
+    }
 
-        return metaAhorroDao.save(meta);
+    // Números de las cuotas pagadas de una meta con cuotas virtuales (las únicas con fila guardada)
+    private Set<Integer> numerosPagados(Long metaId) {
+        Set<Integer> pagadas = new HashSet<>();
+        for (CuotaAhorro cuota : cuotaAhorroDao.findByMetaAhorroId(metaId)) {
+            pagadas.add(cuota.getNumeroCuota());
+        }
+        return pagadas;
+    }
+
+    // Primeras cuotas pendientes, en orden, cuya suma no supera el monto
+    private List<CuotaAhorro> cuotasCubiertas(List<CuotaAhorro> pendientes, long montoAbono) {
+        if (pendientes.isEmpty()) {
+            throw new RuntimeException("La meta no tiene cuotas pendientes");
+        }
+        List<CuotaAhorro> cubiertas = new ArrayList<>();
+        long acumulado = 0;
+        for (CuotaAhorro cuota : pendientes) {
+            acumulado += cuota.getMontoCuotaCentavos();
+            if (acumulado > montoAbono) {
+                break;
+            }
+            cubiertas.add(cuota);
+        }
+        if (cubiertas.isEmpty()) {
+            throw new RuntimeException("El monto no alcanza para pagar la siguiente cuota");
+        }
+        return cubiertas;
     }
 
     @Override
@@ -218,47 +456,45 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
 
         meta.setEstado("CANCELADA");
         metaAhorroDao.save(meta);
+        resumenCache.invalidar(meta.getUsuario().getId());
     }
 
     @Override
     @Transactional(readOnly = true)
     public MetaAhorroResponse calcularSugerenciaAhorro(Long usuarioId, Double porcentajeBalance, Integer numeroCuotas, String frecuencia) {
-        // Calcular el balance del usuario
-        Double balance = usuarioService.calcularBalance(usuarioId);
+        // Calcular el balance del usuario (en centavos)
+        long balance = Dinero.aCentavos(usuarioService.calcularBalance(usuarioId));
 
         if (balance <= 0) {
             throw new RuntimeException("No hay balance positivo disponible para ahorrar");
         }
 
-        // Calcular monto a ahorrar
-        Double montoAhorrar = balance * (porcentajeBalance / 100);
-        Double valorCuota = montoAhorrar / numeroCuotas;
+        // Calcular monto a ahorrar y repartirlo en cuotas
+        long montoAhorrar = Dinero.porcentaje(balance, porcentajeBalance);
+        CronogramaCuotas cronograma = new CronogramaCuotas(LocalDate.now(), frecuencia, numeroCuotas, montoAhorrar);
 
         // Crear respuesta con la sugerencia
         MetaAhorroResponse sugerencia = new MetaAhorroResponse();
-        sugerencia.setMontoObjetivo(montoAhorrar);
+        sugerencia.setMontoObjetivo(Dinero.aDecimal(montoAhorrar));
         sugerencia.setNumeroCuotas(numeroCuotas);
-        sugerencia.setValorCuota(valorCuota);
+        sugerencia.setValorCuota(Dinero.aDecimal(cronograma.monto(1)));
         sugerencia.setFrecuenciaCuota(frecuencia);
         sugerencia.setFechaInicio(LocalDate.now());
-        sugerencia.setFechaFinEstimada(calcularFechaFin(LocalDate.now(), numeroCuotas, frecuencia));
+        sugerencia.setFechaFinEstimada(cronograma.fechaFin());
         sugerencia.setProgresoPorcentaje(0.0);
         sugerencia.setMontoAhorrado(0.0);
-        sugerencia.setMontoFaltante(montoAhorrar);
+        sugerencia.setMontoFaltante(Dinero.aDecimal(montoAhorrar));
 
         // Generar cuotas de ejemplo
         List<CuotaAhorro> cuotasEjemplo = new ArrayList<>();
-        LocalDate fechaCuota = LocalDate.now();
 
         for (int i = 1; i <= Math.min(5, numeroCuotas); i++) {
             CuotaAhorro cuota = new CuotaAhorro();
             cuota.setNumeroCuota(i);
-            cuota.setMontoCuota(valorCuota);
-            cuota.setFechaProgramada(fechaCuota);
+            cuota.setMontoCuotaCentavos(cronograma.monto(i));
+            cuota.setFechaProgramada(cronograma.fecha(i));
             cuota.setEstado("PENDIENTE");
             cuotasEjemplo.add(cuota);
-
-            fechaCuota = calcularSiguienteFecha(fechaCuota, frecuencia);
         }
 
         sugerencia.setProximasCuotas(cuotasEjemplo);
@@ -273,15 +509,8 @@ public class MetaAhorroServiceImpl implements IMetaAhorroService {
     }
 
     @Override
-    @Transactional
-    public void actualizarCuotasVencidas() {
-        List<CuotaAhorro> cuotasVencidas = cuotaAhorroDao
-                .findByEstadoAndFechaProgramadaBefore("PENDIENTE", LocalDate.now());
-
-        for (CuotaAhorro cuota : cuotasVencidas) {
-            cuota.setEstado("VENCIDA");
-        }
-
-        cuotaAhorroDao.saveAll(cuotasVencidas);
+    public Map<String, Object> actualizarCuotasVencidas() {
+        // UPDATEs por lotes, cada uno con su transacción, y a lo sumo una ejecución a la vez entre réplicas
+        return cuotasVencidasService.actualizar();
     }
 }
@@ -0,0 +1,137 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.RefreshTokenDao;
+import co.edu.uceva.celularservice.model.entities.RefreshToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emisión y rotación de refresh tokens.
+ * Permite renovar el access token sin volver a verificar la contraseña (BCrypt).
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenDao refreshTokenDao;
+
+    @Value("${app.jwt.refresh-expiration:2592000000}") // 30 días en milisegundos
+    private long refreshExpirationMs;
+
+    /**
+     * Resultado de una rotación exitosa
+     */
+    public record Rotacion(Long usuarioId, String refreshToken) {
+    }
+
+    /**
+     * Emite un refresh token nuevo (nueva familia) y retorna su valor en claro
+     */
+    @Transactional
+    public String emitir(Long usuarioId) {
+        return emitir(usuarioId, UUID.randomUUID());
+    }
+
+    /**
+     * Cambia un refresh token válido por uno nuevo de la misma familia.
+     * Si el token ya había sido usado se asume robo y se revoca la familia completa.
+     * Retorna vacío cuando el token no es válido.
+     */
+    @Transactional
+    public Optional<Rotacion> rotar(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return Optional.empty();
+        }
+
+        RefreshToken actual = refreshTokenDao.findByTokenHash(hash(refreshToken)).orElse(null);
+        if (actual == null || actual.isRevocado() || actual.getExpiraEn().isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+
+        // Actualización condicional: de dos peticiones concurrentes con el mismo token solo una gana
+        if (refreshTokenDao.marcarUsado(actual.getId()) == 0) {
+            refreshTokenDao.revocarFamilia(actual.getFamilia());
+            return Optional.empty();
+        }
+
+        String nuevo = emitir(actual.getUsuarioId(), actual.getFamilia());
+        return Optional.of(new Rotacion(actual.getUsuarioId(), nuevo));
+    }
+
+    /**
+     * Revoca la sesión de un refresh token (toda su familia) si pertenece al usuario
+     */
+    @Transactional
+    public void revocar(String refreshToken, Long usuarioId) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        refreshTokenDao.findByTokenHash(hash(refreshToken))
+                .filter(token -> token.getUsuarioId().equals(usuarioId))
+                .ifPresent(token -> refreshTokenDao.revocarFamilia(token.getFamilia()));
+    }
+
+    /**
+     * Revoca todos los refresh tokens de un usuario
+     */
+    @Transactional
+    public void revocarPorUsuario(Long usuarioId) {
+        refreshTokenDao.revocarPorUsuario(usuarioId);
+    }
+
+    /**
+     * Elimina los refresh tokens de un usuario (al eliminar el usuario)
+     */
+    @Transactional
+    public void eliminarPorUsuario(Long usuarioId) {
+        refreshTokenDao.deleteByUsuarioId(usuarioId);
+    }
+
+    /**
+     * Limpieza periódica de refresh tokens expirados
+     */
+    @Scheduled(cron = "${app.jwt.refresh-cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void eliminarExpirados() {
+        refreshTokenDao.deleteExpirados(Instant.now());
+    }
+
+    private String emitir(Long usuarioId, UUID familia) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken token = new RefreshToken();
+        token.setTokenHash(hash(valor));
+        token.setUsuarioId(usuarioId);
+        token.setFamilia(familia);
+        token.setExpiraEn(Instant.now().plusMillis(refreshExpirationMs));
+        refreshTokenDao.save(token);
+
+        return valor;
+    }
+
+    private static String hash(String valor) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
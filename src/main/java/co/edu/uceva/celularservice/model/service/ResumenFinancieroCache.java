@@ -0,0 +1,193 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dto.ResumenFinanciero;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache acotada del resumen financiero de cada usuario (balance, totales y desglose).
+ * Las entradas expiran por tiempo y por tamaño, y se invalidan cuando cambian los ingresos,
+ * gastos o metas del usuario. Varias peticiones simultáneas que no encuentran la entrada
+ * esperan una única carga en lugar de consultar la base de datos cada una.
+ */
+@Component
+public class ResumenFinancieroCache {
+
+    @Value("${app.cache.resumen.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.cache.resumen.ttl:60000}")
+    private long ttlMs;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong expiradas = new AtomicLong();
+    private final AtomicLong desalojadas = new AtomicLong();
+    private final AtomicLong invalidadas = new AtomicLong();
+
+    private static final class Entrada {
+        final CompletableFuture<Optional<ResumenFinanciero>> valor = new CompletableFuture<>();
+        final long cargadaEnMs;
+
+        Entrada(long cargadaEnMs) {
+            this.cargadaEnMs = cargadaEnMs;
+        }
+    }
+
+    @PostConstruct
+    void registrarMetricas() {
+        String solicitudes = "Solicitudes de resumen financiero según si se sirvieron de la cache";
+        contador("resumen.cache.requests", "result", "hit", hits, solicitudes);
+        contador("resumen.cache.requests", "result", "miss", misses, solicitudes);
+        // Peticiones que esperaron una carga ya en curso para el mismo usuario
+        contador("resumen.cache.requests", "result", "coalesced", coalesced, solicitudes);
+        String descartes = "Resúmenes descartados de la cache por causa";
+        contador("resumen.cache.evictions", "cause", "expired", expiradas, descartes);
+        contador("resumen.cache.evictions", "cause", "size", desalojadas, descartes);
+        contador("resumen.cache.evictions", "cause", "invalidated", invalidadas, descartes);
+        Gauge.builder("resumen.cache.size", entradas, Map::size)
+                .description("Resúmenes en cache")
+                .register(meterRegistry);
+    }
+
+    private void contador(String nombre, String tag, String valor, AtomicLong fuente, String descripcion) {
+        FunctionCounter.builder(nombre, fuente, AtomicLong::get)
+                .tag(tag, valor)
+                .description(descripcion)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Retorna el resumen cacheado o lo calcula con el cargador (una sola vez por usuario aunque haya
+     * peticiones concurrentes)
+     */
+    public Optional<ResumenFinanciero> obtener(Long usuarioId, Function<Long, Optional<ResumenFinanciero>> cargador) {
+        long ahora = System.currentTimeMillis();
+        Entrada actual = entradas.get(usuarioId);
+        if (actual != null) {
+            if (ahora - actual.cargadaEnMs < ttlMs) {
+                (actual.valor.isDone() ? hits : coalesced).incrementAndGet();
+                return esperar(actual);
+            }
+            if (entradas.remove(usuarioId, actual)) {
+                expiradas.incrementAndGet();
+            }
+        }
+
+        Entrada nueva = new Entrada(ahora);
+        Entrada previa = entradas.putIfAbsent(usuarioId, nueva);
+        if (previa != null) {
+            coalesced.incrementAndGet();
+            return esperar(previa);
+        }
+
+        misses.incrementAndGet();
+        hacerEspacio(ahora);
+        try {
+            nueva.valor.complete(cargador.apply(usuarioId));
+        } catch (RuntimeException e) {
+            entradas.remove(usuarioId, nueva);
+            nueva.valor.completeExceptionally(e);
+            throw e;
+        }
+        return nueva.valor.join();
+    }
+
+    /**
+     * Descarta el resumen de un usuario. Dentro de una transacción se descarta también al confirmarla,
+     * para que una lectura concurrente no vuelva a cachear los datos anteriores al cambio.
+     */
+    public void invalidar(Long usuarioId) {
+        if (usuarioId == null) {
+            return;
+        }
+        quitar(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    quitar(usuarioId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Descarta todos los resúmenes (reconstrucción completa)
+     */
+    public void invalidarTodo() {
+        invalidadas.addAndGet(entradas.size());
+        entradas.clear();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entradas.clear();
+                }
+            });
+        }
+    }
+
+    private void quitar(Long usuarioId) {
+        if (entradas.remove(usuarioId) != null) {
+            invalidadas.incrementAndGet();
+        }
+    }
+
+    private Optional<ResumenFinanciero> esperar(Entrada entrada) {
+        try {
+            return entrada.valor.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private void hacerEspacio(long ahora) {
+        if (entradas.size() <= maxSize) {
+            return;
+        }
+        entradas.entrySet().removeIf(e -> {
+            boolean expirada = ahora - e.getValue().cargadaEnMs >= ttlMs;
+            if (expirada) {
+                expiradas.incrementAndGet();
+            }
+            return expirada;
+        });
+        if (entradas.size() <= maxSize) {
+            return;
+        }
+        // Si sigue llena se descarta cerca de un 10% de entradas
+        int aQuitar = entradas.size() - maxSize + maxSize / 10;
+        Iterator<Long> it = entradas.keySet().iterator();
+        while (aQuitar-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            desalojadas.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.ResumenMensualDao;
+import co.edu.uceva.celularservice.model.dao.ResumenUsuarioDao;
+import co.edu.uceva.celularservice.model.entities.ResumenMensual;
+import co.edu.uceva.celularservice.model.entities.ResumenUsuario;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene las tablas resumen_usuario y resumen_mensual. Cada alta, cambio o baja de un ingreso o gasto
+ * se traduce en UPDATEs con incremento atómico dentro de la misma transacción, de modo que dos escrituras
+ * concurrentes del mismo usuario no se pisan y el resumen nunca queda adelantado a los datos.
+ */
+@Service
+public class ResumenUsuarioService {
+
+    // Inconsistencias que se detallan como máximo en la verificación
+    private static final int MAX_DETALLE = 100;
+
+    @Autowired
+    private ResumenUsuarioDao resumenUsuarioDao;
+
+    @Autowired
+    private ResumenMensualDao resumenMensualDao;
+
+    @Autowired
+    private ResumenFinancieroCache resumenCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Registra el cambio de un ingreso en el resumen de su usuario y en el de los meses afectados:
+     * el estado/valor/fecha anterior se resta y el nuevo se suma (alta: anterior null; baja: nuevo null).
+     * Valores en centavos.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ajustarIngreso(Long usuarioId, String estadoAnterior, Long valorAnterior, LocalDate fechaAnterior,
+                               String estadoNuevo, Long valorNuevo, LocalDate fechaNueva) {
+        ajustar(true, usuarioId, estadoAnterior, valorAnterior, fechaAnterior, estadoNuevo, valorNuevo, fechaNueva);
+    }
+
+    /**
+     * Registra el cambio de un gasto en el resumen de su usuario y de los meses afectados (ver ajustarIngreso)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ajustarGasto(Long usuarioId, String estadoAnterior, Long valorAnterior, LocalDate fechaAnterior,
+                             String estadoNuevo, Long valorNuevo, LocalDate fechaNueva) {
+        ajustar(false, usuarioId, estadoAnterior, valorAnterior, fechaAnterior, estadoNuevo, valorNuevo, fechaNueva);
+    }
+
+    private void ajustar(boolean ingreso, Long usuarioId, String estadoAnterior, Long valorAnterior, LocalDate fechaAnterior,
+                         String estadoNuevo, Long valorNuevo, LocalDate fechaNueva) {
+        Delta delta = Delta.entre(estadoAnterior, valorAnterior, estadoNuevo, valorNuevo);
+        int periodoAnterior = ResumenMensual.periodo(fechaAnterior);
+        int periodoNuevo = ResumenMensual.periodo(fechaNueva);
+        if (usuarioId == null || (delta.esCero() && periodoAnterior == periodoNuevo)) {
+            return;
+        }
+        resumenCache.invalidar(usuarioId);
+
+        // El UPDATE del resumen bloquea la fila del usuario hasta el commit, así que los ajustes de sus
+        // meses (y la creación de un mes nuevo) quedan serializados entre transacciones concurrentes
+        int filas = ingreso
+                ? resumenUsuarioDao.sumarIngresos(usuarioId, delta.total(), delta.fijos(), delta.variables())
+                : resumenUsuarioDao.sumarGastos(usuarioId, delta.total(), delta.fijos(), delta.variables());
+        if (filas == 0) {
+            recalcularUsuario(usuarioId);
+            return;
+        }
+
+        long anterior = valorAnterior != null ? valorAnterior : 0;
+        long nuevo = valorNuevo != null ? valorNuevo : 0;
+        if (periodoAnterior == periodoNuevo) {
+            sumarMes(ingreso, usuarioId, periodoNuevo, nuevo - anterior);
+        } else {
+            sumarMes(ingreso, usuarioId, periodoAnterior, -anterior);
+            sumarMes(ingreso, usuarioId, periodoNuevo, nuevo);
+        }
+    }
+
+    private void sumarMes(boolean ingreso, Long usuarioId, int periodo, long monto) {
+        if (periodo == 0 || monto == 0) {
+            return;
+        }
+        long ingresos = ingreso ? monto : 0;
+        long gastos = ingreso ? 0 : monto;
+        if (resumenMensualDao.sumar(usuarioId, periodo, ingresos, gastos) == 0) {
+            resumenMensualDao.insertar(usuarioId, periodo, ingresos, gastos);
+        }
+    }
+
+    /**
+     * Crea el resumen vacío de un usuario recién registrado
+     */
+    @Transactional
+    public void crearVacio(Long usuarioId) {
+        // INSERT ... SELECT: una sola sentencia, sin el SELECT previo de save() con id asignado
+        resumenUsuarioDao.crearFaltantes(usuarioId);
+        resumenCache.invalidar(usuarioId);
+    }
+
+    /**
+     * Recalcula el resumen de un usuario y sus meses desde las tablas base (los crea si no existen).
+     * Los cambios pendientes del contexto de persistencia se envían antes para que entren en el cálculo.
+     */
+    @Transactional
+    public void recalcularUsuario(Long usuarioId) {
+        entityManager.flush();
+        if (resumenUsuarioDao.recalcular(usuarioId) == 0) {
+            resumenUsuarioDao.crearFaltantes(usuarioId);
+        }
+        resumenMensualDao.deleteByUsuarioId(usuarioId);
+        resumenMensualDao.crearDesdeMovimientos(usuarioId);
+        resumenCache.invalidar(usuarioId);
+    }
+
+    @Transactional
+    public void eliminarUsuario(Long usuarioId) {
+        resumenUsuarioDao.deleteByUsuarioId(usuarioId);
+        resumenMensualDao.deleteByUsuarioId(usuarioId);
+        resumenCache.invalidar(usuarioId);
+    }
+
+    /**
+     * Reconstruye todos los resúmenes (totales y mensuales) desde las tablas base
+     * @return cantidad de resúmenes actualizados, creados y eliminados, y de meses reconstruidos
+     */
+    @Transactional
+    public Map<String, Integer> reconstruir() {
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        resultado.put("actualizados", resumenUsuarioDao.recalcular(null));
+        resultado.put("creados", resumenUsuarioDao.crearFaltantes(null));
+        resultado.put("eliminados", resumenUsuarioDao.deleteHuerfanos());
+        resumenMensualDao.deleteTodos();
+        resultado.put("meses", resumenMensualDao.crearTodosDesdeMovimientos());
+        resumenCache.invalidarTodo();
+        return resultado;
+    }
+
+    /**
+     * Compara los resúmenes guardados con los totales reales de las tablas base.
+     * @param reparar si es true, recalcula los usuarios inconsistentes
+     */
+    @Transactional
+    public Map<String, Object> verificar(boolean reparar) {
+        int revisados = 0;
+        List<Long> inconsistentes = new ArrayList<>();
+        List<Map<String, Object>> detalle = new ArrayList<>();
+
+        try (Stream<ResumenUsuarioDao.VerificacionResumen> filas = resumenUsuarioDao.verificarTodos()) {
+            for (ResumenUsuarioDao.VerificacionResumen fila : (Iterable<ResumenUsuarioDao.VerificacionResumen>) filas::iterator) {
+                revisados++;
+                List<String> campos = camposDistintos(fila);
+                if (!campos.isEmpty()) {
+                    inconsistentes.add(fila.getId());
+                    if (detalle.size() < MAX_DETALLE) {
+                        Map<String, Object> item = new LinkedHashMap<>();
+                        item.put("usuarioId", fila.getId());
+                        item.put("username", fila.getUsername());
+                        item.put("campos", campos);
+                        detalle.add(item);
+                    }
+                }
+                if (fila.getGuardado() != null) {
+                    entityManager.detach(fila.getGuardado());
+                }
+            }
+        }
+
+        if (reparar) {
+            inconsistentes.forEach(this::recalcularUsuario);
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("usuariosRevisados", revisados);
+        resultado.put("inconsistentes", inconsistentes.size());
+        resultado.put("reparados", reparar ? inconsistentes.size() : 0);
+        resultado.put("detalle", detalle);
+        return resultado;
+    }
+
+    private List<String> camposDistintos(ResumenUsuarioDao.VerificacionResumen fila) {
+        List<String> campos = new ArrayList<>();
+        ResumenUsuario guardado = fila.getGuardado();
+        if (guardado == null) {
+            campos.add("sinResumen");
+            return campos;
+        }
+        comparar(campos, "totalIngresos", guardado.getTotalIngresos(), fila.getTotalIngresos());
+        comparar(campos, "ingresosFijos", guardado.getIngresosFijos(), fila.getIngresosFijos());
+        comparar(campos, "ingresosVariables", guardado.getIngresosVariables(), fila.getIngresosVariables());
+        comparar(campos, "totalGastos", guardado.getTotalGastos(), fila.getTotalGastos());
+        comparar(campos, "gastosFijos", guardado.getGastosFijos(), fila.getGastosFijos());
+        comparar(campos, "gastosVariables", guardado.getGastosVariables(), fila.getGastosVariables());
+        return campos;
+    }
+
+    // Los montos son centavos enteros: la comparación es exacta
+    private void comparar(List<String> campos, String campo, Long guardado, long real) {
+        if (Objects.requireNonNullElse(guardado, 0L) != real) {
+            campos.add(campo);
+        }
+    }
+
+    /**
+     * Variación de los totales al pasar de un estado/valor a otro
+     */
+    private record Delta(long total, long fijos, long variables) {
+
+        static Delta entre(String estadoAnterior, Long valorAnterior, String estadoNuevo, Long valorNuevo) {
+            long anterior = valorAnterior != null ? valorAnterior : 0;
+            long nuevo = valorNuevo != null ? valorNuevo : 0;
+            return new Delta(
+                    nuevo - anterior,
+                    (esTipo(estadoNuevo, "fijo") ? nuevo : 0) - (esTipo(estadoAnterior, "fijo") ? anterior : 0),
+                    (esTipo(estadoNuevo, "variable") ? nuevo : 0) - (esTipo(estadoAnterior, "variable") ? anterior : 0)
+            );
+        }
+
+        boolean esCero() {
+            return total == 0 && fijos == 0 && variables == 0;
+        }
+
+        private static boolean esTipo(String estado, String tipo) {
+            return tipo.equalsIgnoreCase(estado);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.TokenRevocadoDao;
+import co.edu.uceva.celularservice.model.entities.TokenRevocado;
+import co.edu.uceva.celularservice.security.BloomFilter;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revocación de access tokens (logout).
+ * Los "jti" revocados se guardan en la tabla tokens_revocados y en un filtro de Bloom en memoria,
+ * de modo que comprobar un token no revocado (el caso normal) no consulta la base de datos.
+ * Solo los posibles positivos del filtro se confirman con una consulta por clave primaria.
+ * El filtro se reconstruye al arrancar y tras la limpieza de expirados, y se sincroniza
+ * periódicamente con las revocaciones hechas en otras réplicas.
+ */
+@Service
+public class TokenRevocacionService {
+
+    // Margen al sincronizar para no perder revocaciones que se confirmaron con retraso
+    private static final long MARGEN_SINCRONIZACION_MS = 5000;
+
+    @Autowired
+    private TokenRevocadoDao tokenRevocadoDao;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Revocaciones esperadas en memoria antes de agrandar el filtro
+    @Value("${app.jwt.revocation.expected:10000}")
+    private int capacidadEsperada;
+
+    @Value("${app.jwt.revocation.false-positive-rate:0.001}")
+    private double tasaFalsosPositivos;
+
+    private volatile BloomFilter filtro;
+    private volatile Instant ultimaSincronizacion = Instant.EPOCH;
+
+    // Resultados confirmados en la base para los positivos del filtro (jti -> revocado)
+    private final Map<String, Boolean> confirmados = new ConcurrentHashMap<>();
+
+    private Counter descartados;
+    private Counter confirmadosRevocados;
+    private Counter falsosPositivos;
+
+    @PostConstruct
+    void init() {
+        descartados = Counter.builder("auth.revocation.checks").tag("result", "bloom_negative").register(meterRegistry);
+        confirmadosRevocados = Counter.builder("auth.revocation.checks").tag("result", "revoked").register(meterRegistry);
+        falsosPositivos = Counter.builder("auth.revocation.checks").tag("result", "false_positive").register(meterRegistry);
+        Gauge.builder("auth.revocation.bloom.entries", this, s -> s.filtro.getInsertados()).register(meterRegistry);
+        reconstruir();
+    }
+
+    /**
+     * Indica si el token fue revocado. Sin I/O cuando el filtro de Bloom lo descarta.
+     */
+    public boolean estaRevocado(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            return false;
+        }
+        if (!filtro.mightContain(jti)) {
+            descartados.increment();
+            return false;
+        }
+
+        Boolean revocado = confirmados.get(jti);
+        if (revocado == null) {
+            revocado = tokenRevocadoDao.existsById(jti);
+            if (confirmados.size() < capacidadEsperada) {
+                confirmados.put(jti, revocado);
+            }
+        }
+        (revocado ? confirmadosRevocados : falsosPositivos).increment();
+        return revocado;
+    }
+
+    /**
+     * Revoca un access token hasta su expiración
+     */
+    @Transactional
+    public void revocar(Claims claims, Long usuarioId) {
+        String jti = claims.getId();
+        if (jti == null || claims.getExpiration() == null) {
+            throw new RuntimeException("El token no se puede revocar");
+        }
+        if (!tokenRevocadoDao.existsById(jti)) {
+            tokenRevocadoDao.save(new TokenRevocado(jti, usuarioId, claims.getExpiration().toInstant(), Instant.now()));
+        }
+        agregar(jti);
+        // Una reconstrucción concurrente pudo leer la tabla antes de este INSERT y reemplazar el filtro:
+        // se agrega de nuevo al confirmar, cuando cualquier reconstrucción posterior ya ve la fila
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    agregar(jti);
+                }
+            });
+        }
+    }
+
+    /**
+     * Trae las revocaciones hechas desde la última sincronización (en esta u otras réplicas)
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.sync-interval:15000}",
+            initialDelayString = "${app.jwt.revocation.sync-interval:15000}")
+    public void sincronizar() {
+        Instant inicio = Instant.now();
+        List<String> nuevos = tokenRevocadoDao.findJtiRevocadosDesde(
+                ultimaSincronizacion.minusMillis(MARGEN_SINCRONIZACION_MS));
+        nuevos.forEach(this::agregar);
+        ultimaSincronizacion = inicio;
+    }
+
+    /**
+     * Elimina las revocaciones de tokens ya expirados y reconstruye el filtro sin ellas
+     */
+    @Scheduled(cron = "${app.jwt.revocation.cleanup-cron:0 0 * * * *}")
+    @Transactional
+    public void eliminarExpirados() {
+        tokenRevocadoDao.deleteExpirados(Instant.now());
+        reconstruir();
+    }
+
+    /**
+     * Construye un filtro nuevo con los jti vigentes y lo reemplaza completo
+     */
+    public synchronized void reconstruir() {
+        Instant inicio = Instant.now();
+        List<String> vigentes = tokenRevocadoDao.findJtiVigentes(inicio);
+        BloomFilter nuevo = new BloomFilter(Math.max(capacidadEsperada, vigentes.size() * 2), tasaFalsosPositivos);
+        vigentes.forEach(nuevo::put);
+        filtro = nuevo;
+        confirmados.clear();
+        ultimaSincronizacion = inicio;
+    }
+
+    // Sincronizado con reconstruir: el jti nunca se agrega a un filtro que está a punto de ser reemplazado
+    private synchronized void agregar(String jti) {
+        BloomFilter actual = filtro;
+        actual.put(jti);
+        confirmados.put(jti, Boolean.TRUE);
+        // Pasada la capacidad la tasa de falsos positivos crece: se agranda el filtro
+        if (actual.getInsertados() > actual.getCapacidad()) {
+            reconstruir();
+        }
+    }
+}
@@ -1,33 +1,148 @@
 package co.edu.uceva.celularservice.model.service;
 
 
+import co.edu.uceva.celularservice.model.dao.GastoDao;
+import co.edu.uceva.celularservice.model.dao.IngresoDao;
+import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.ResumenMensualDao;
+import co.edu.uceva.celularservice.model.dao.ResumenUsuarioDao;
 import co.edu.uceva.celularservice.model.dao.UsuarioDao;
-import co.edu.uceva.celularservice.model.entities.Gasto;
-import co.edu.uceva.celularservice.model.entities.Ingreso;
+import co.edu.uceva.celularservice.model.dto.Pagina;
+import co.edu.uceva.celularservice.model.dto.ResumenFinanciero;
+import co.edu.uceva.celularservice.model.dto.TotalMensual;
+import co.edu.uceva.celularservice.model.dto.TotalPorEstado;
+import co.edu.uceva.celularservice.model.dto.TotalesDetalladosUsuario;
+import co.edu.uceva.celularservice.model.dto.TotalesUsuario;
+import co.edu.uceva.celularservice.model.dto.UsuarioResumen;
+import co.edu.uceva.celularservice.model.entities.ResumenMensual;
 import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.util.Dinero;
+import co.edu.uceva.celularservice.security.CustomUserDetailsService;
+import co.edu.uceva.celularservice.security.TokenVersionCache;
+import co.edu.uceva.celularservice.security.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class UsuarioServiceImpl implements IUsuarioService{
+
+    // Meses que puede abarcar una serie mensual
+    private static final int MAX_MESES_SERIE = 120;
+
+    // Colecciones que se pueden incluir en el listado de usuarios con "expand"
+    private static final Set<String> EXPANSIONES = Set.of("ingresos", "gastos", "metasAhorro");
+
     @Autowired
     UsuarioDao usuarioDao;
 
+    @Autowired
+    private IngresoDao ingresoDao;
+
+    @Autowired
+    private GastoDao gastoDao;
+
+    @Autowired
+    private ResumenUsuarioDao resumenUsuarioDao;
+
+    @Autowired
+    private MetaAhorroDao metaAhorroDao;
+
+    @Autowired
+    private ResumenMensualDao resumenMensualDao;
+
+    @Autowired
+    private ResumenFinancieroCache resumenCache;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
     @Override
     public List<Usuario> listar() {
         return (List<Usuario>) usuarioDao.findAll();
     }
 
     @Override
+    public Pagina<UsuarioResumen> listarPagina(Long despuesDe, int limite, Set<String> expand) {
+        for (String coleccion : expand) {
+            if (!EXPANSIONES.contains(coleccion)) {
+                throw new RuntimeException("No se puede expandir '" + coleccion + "'. Opciones: " + EXPANSIONES);
+            }
+        }
+        // Se pide una fila de más para saber si hay otra página
+        Pagina<UsuarioResumen> pagina = Pagina.de(
+                usuarioDao.findResumenesDespuesDe(despuesDe != null ? despuesDe : 0L, Limit.of(limite + 1)),
+                limite, UsuarioResumen::getId);
+        if (expand.isEmpty() || pagina.getElementos().isEmpty()) {
+            return pagina;
+        }
+
+        // Cada colección pedida se trae con una sola consulta para toda la página (sin N+1)
+        Map<Long, UsuarioResumen> porId = new LinkedHashMap<>();
+        pagina.getElementos().forEach(u -> porId.put(u.getId(), u));
+        if (expand.contains("ingresos")) {
+            porId.values().forEach(u -> u.setIngresos(new ArrayList<>()));
+            ingresoDao.findResumenesByUsuarioIdIn(porId.keySet())
+                    .forEach(i -> porId.get(i.getUsuarioId()).getIngresos().add(i));
+        }
+        if (expand.contains("gastos")) {
+            porId.values().forEach(u -> u.setGastos(new ArrayList<>()));
+            gastoDao.findResumenesByUsuarioIdIn(porId.keySet())
+                    .forEach(g -> porId.get(g.getUsuarioId()).getGastos().add(g));
+        }
+        if (expand.contains("metasAhorro")) {
+            porId.values().forEach(u -> u.setMetasAhorro(new ArrayList<>()));
+            metaAhorroDao.findResumenesByUsuarioIdIn(porId.keySet())
+                    .forEach(m -> porId.get(m.getUsuarioId()).getMetasAhorro().add(m));
+        }
+        return pagina;
+    }
+
+    @Override
+    @Transactional
     public void delete(Usuario usuario) {
+        // Usuario, resúmenes y refresh tokens se eliminan en la misma transacción
         usuarioDao.delete(usuario);
+        resumenUsuarioService.eliminarUsuario(usuario.getId());
+        refreshTokenService.eliminarPorUsuario(usuario.getId());
+        invalidarTokens(usuario.getUsername(), usuario.getId());
     }
 
     @Override
+    @Transactional
     public Usuario save(Usuario usuario) {
-        return usuarioDao.save(usuario);
+        prepararActualizacion(usuario);
+        Usuario guardado = usuarioDao.save(usuario);
+        // El JSON puede reemplazar las colecciones de ingresos y gastos: el resumen se recalcula completo
+        resumenUsuarioService.recalcularUsuario(guardado.getId());
+        userDetailsService.olvidarDesconocido(guardado.getUsername());
+        return guardado;
     }
 
     @Override
@@ -36,36 +151,125 @@ public class UsuarioServiceImpl implements IUsuarioService{
     }
 
     @Override
+    @Transactional
     public Usuario update(Usuario usuario) {
-        return usuarioDao.save(usuario);
+        prepararActualizacion(usuario);
+        Usuario guardado = usuarioDao.save(usuario);
+        resumenUsuarioService.recalcularUsuario(guardado.getId());
+        userDetailsService.olvidarDesconocido(guardado.getUsername());
+        return guardado;
     }
 
     @Override
     public Double calcularTotalIngresos(Long usuarioId) {
-        Usuario usuario = findById(usuarioId);
-        if (usuario == null || usuario.getIngresos() == null) {
-            return 0.0;
-        }
-        return usuario.getIngresos().stream()
-                .mapToDouble(Ingreso::getValorIngreso)
-                .sum();
+        return Dinero.aDecimal(Dinero.sumar(ingresoDao.sumarPorEstado(usuarioId), TotalPorEstado::getTotal));
     }
 
     @Override
     public Double calcularTotalGastos(Long usuarioId) {
-        Usuario usuario = findById(usuarioId);
-        if (usuario == null || usuario.getGastos() == null) {
-            return 0.0;
-        }
-        return usuario.getGastos().stream()
-                .mapToDouble(Gasto::getValorGasto)
-                .sum();
+        return Dinero.aDecimal(Dinero.sumar(gastoDao.sumarPorEstado(usuarioId), TotalPorEstado::getTotal));
     }
 
     @Override
     public Double calcularBalance(Long usuarioId) {
-        Double totalIngresos = calcularTotalIngresos(usuarioId);
-        Double totalGastos = calcularTotalGastos(usuarioId);
-        return totalIngresos - totalGastos;
+        return obtenerResumenFinanciero(usuarioId)
+                .map(ResumenFinanciero::getBalance)
+                .orElse(0.0);
+    }
+
+    @Override
+    public Optional<TotalesUsuario> obtenerTotales(Long usuarioId) {
+        // El resumen mantenido cuesta O(1); si el usuario aún no lo tiene se suman las tablas base
+        return resumenUsuarioDao.findTotalesById(usuarioId)
+                .<TotalesUsuario>map(totales -> totales)
+                .or(() -> usuarioDao.findTotalesById(usuarioId));
+    }
+
+    @Override
+    public Optional<ResumenFinanciero> obtenerResumenFinanciero(Long usuarioId) {
+        return resumenCache.obtener(usuarioId, id -> resumenUsuarioDao.findTotalesById(id)
+                .or(() -> usuarioDao.findTotalesDetalladosById(id))
+                .map(this::toResumen));
+    }
+
+    @Override
+    public Optional<List<TotalMensual>> obtenerSerieMensual(Long usuarioId, YearMonth desde, YearMonth hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new RuntimeException("El mes inicial no puede ser posterior al mes final");
+        }
+        if (ChronoUnit.MONTHS.between(desde, hasta) >= MAX_MESES_SERIE) {
+            throw new RuntimeException("La serie admite como máximo " + MAX_MESES_SERIE + " meses");
+        }
+        if (!usuarioDao.existsById(usuarioId)) {
+            return Optional.empty();
+        }
+
+        // Solo se leen los resúmenes mensuales; los meses sin movimientos se completan con ceros
+        Map<Integer, ResumenMensual> porPeriodo = new HashMap<>();
+        for (ResumenMensual mes : resumenMensualDao.findByUsuarioIdAndPeriodoBetweenOrderByPeriodoAsc(
+                usuarioId, ResumenMensual.periodo(desde), ResumenMensual.periodo(hasta))) {
+            porPeriodo.put(mes.getPeriodo(), mes);
+        }
+        List<TotalMensual> serie = new ArrayList<>();
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            ResumenMensual fila = porPeriodo.get(ResumenMensual.periodo(mes));
+            long ingresos = fila != null ? fila.getIngresos() : 0;
+            long gastos = fila != null ? fila.getGastos() : 0;
+            serie.add(new TotalMensual(mes.toString(), Dinero.aDecimal(ingresos), Dinero.aDecimal(gastos),
+                    Dinero.aDecimal(ingresos - gastos)));
+        }
+        return Optional.of(serie);
+    }
+
+    // Los totales se calculan en centavos; el resumen los expone como decimales
+    private ResumenFinanciero toResumen(TotalesDetalladosUsuario totales) {
+        return new ResumenFinanciero(
+                totales.getId(),
+                totales.getUsername(),
+                Dinero.aDecimal(totales.getTotalIngresos()),
+                Dinero.aDecimal(totales.getTotalGastos()),
+                Dinero.aDecimal(totales.getBalance()),
+                Dinero.aDecimal(totales.getIngresosVariables()),
+                Dinero.aDecimal(totales.getIngresosFijos()),
+                Dinero.aDecimal(totales.getGastosVariables()),
+                Dinero.aDecimal(totales.getGastosFijos())
+        );
+    }
+
+    /**
+     * Si el usuario ya existe conserva su versión de token (no viaja en el JSON) y la incrementa
+     * cuando cambia el rol o el username, de modo que los tokens anteriores dejen de ser válidos
+     */
+    private void prepararActualizacion(Usuario usuario) {
+        if (usuario.getId() == null) {
+            return;
+        }
+        usuarioDao.findById(usuario.getId()).ifPresent(actual -> {
+            int version = actual.getTokenVersion() != null ? actual.getTokenVersion() : 0;
+            boolean cambioIdentidad = !Objects.equals(actual.getRol(), usuario.getRol())
+                    || !Objects.equals(actual.getUsername(), usuario.getUsername());
+            usuario.setTokenVersion(cambioIdentidad ? version + 1 : version);
+
+            invalidarTokens(actual.getUsername(), actual.getId());
+        });
+    }
+
+    /**
+     * Descarta los tokens verificados y la versión cacheada del usuario. Se descartan de nuevo al confirmar
+     * la transacción: una petición concurrente pudo leer la versión anterior (o el usuario aún sin eliminar)
+     * antes del commit y volver a cachearla
+     */
+    private void invalidarTokens(String username, Long usuarioId) {
+        tokenCache.invalidarUsuario(username);
+        tokenVersionCache.invalidar(usuarioId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    tokenCache.invalidarUsuario(username);
+                    tokenVersionCache.invalidar(usuarioId);
+                }
+            });
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,77 @@
+package co.edu.uceva.celularservice.model.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lectura y escritura mínima de CSV (RFC 4180): separador coma, comillas dobles para los campos
+ * con comas, comillas o saltos de línea, y "" para una comilla dentro de un campo.
+ */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /**
+     * Texto listo para escribir como campo (entre comillas solo si hace falta)
+     */
+    public static String campo(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Separa el texto en registros y campos. Las líneas vacías se omiten; los campos se retornan sin recortar.
+     */
+    public static List<List<String>> leer(String texto) {
+        List<List<String>> registros = new ArrayList<>();
+        List<String> registro = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int n = texto.length();
+        for (int i = 0; i < n; i++) {
+            char c = texto.charAt(i);
+            if (entreComillas) {
+                if (c != '"') {
+                    campo.append(c);
+                } else if (i + 1 < n && texto.charAt(i + 1) == '"') {
+                    campo.append('"');
+                    i++;
+                } else {
+                    entreComillas = false;
+                }
+            } else if (c == '"') {
+                entreComillas = true;
+            } else if (c == ',') {
+                registro.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < n && texto.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                terminar(registros, registro, campo);
+                registro = new ArrayList<>();
+            } else {
+                campo.append(c);
+            }
+        }
+        if (entreComillas) {
+            throw new IllegalArgumentException("CSV inválido: comillas sin cerrar");
+        }
+        terminar(registros, registro, campo);
+        return registros;
+    }
+
+    private static void terminar(List<List<String>> registros, List<String> registro, StringBuilder campo) {
+        registro.add(campo.toString());
+        campo.setLength(0);
+        if (registro.size() > 1 || !registro.get(0).isEmpty()) {
+            registros.add(registro);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package co.edu.uceva.celularservice.model.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Montos en unidades mínimas (centavos, long). La aplicación guarda y suma los montos como enteros
+ * para que las sumas sean exactas; la conversión a decimal solo se hace en el borde (JSON).
+ */
+public final class Dinero {
+
+    public static final int CENTAVOS_POR_UNIDAD = 100;
+
+    private Dinero() {
+    }
+
+    /**
+     * Convierte un monto decimal a centavos, redondeando al centavo más cercano (mitad hacia arriba)
+     */
+    public static Long aCentavos(Double valor) {
+        if (valor == null) {
+            return null;
+        }
+        if (valor.isNaN() || valor.isInfinite()) {
+            throw new IllegalArgumentException("Monto inválido: " + valor);
+        }
+        // BigDecimal.valueOf usa la representación decimal más corta: 1.005 se redondea a 1.01 y no a 1.00
+        return aCentavos(BigDecimal.valueOf(valor));
+    }
+
+    /**
+     * Convierte un monto decimal exacto (por ejemplo, leído de un texto) a centavos, con el mismo redondeo
+     */
+    public static long aCentavos(BigDecimal valor) {
+        return valor.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Convierte centavos al monto decimal que se expone en el JSON
+     */
+    public static Double aDecimal(Long centavos) {
+        return centavos != null ? aDecimal(centavos.longValue()) : null;
+    }
+
+    public static double aDecimal(long centavos) {
+        return (double) centavos / CENTAVOS_POR_UNIDAD;
+    }
+
+    /**
+     * Monto exacto con dos decimales (sin notación científica al escribirlo como texto)
+     */
+    public static BigDecimal aMonto(Long centavos) {
+        return centavos != null ? BigDecimal.valueOf(centavos, 2) : null;
+    }
+
+    /**
+     * Suma exacta de montos en centavos (falla si se desborda en lugar de dar un total erróneo)
+     */
+    public static long sumar(long... centavos) {
+        long total = 0;
+        for (long valor : centavos) {
+            total = Math.addExact(total, valor);
+        }
+        return total;
+    }
+
+    /**
+     * Suma los centavos de una lista sin pasar por valores envueltos intermedios
+     */
+    public static <T> long sumar(List<T> elementos, ToLongFunction<? super T> centavos) {
+        long total = 0;
+        for (int i = 0, n = elementos.size(); i < n; i++) {
+            total = Math.addExact(total, centavos.applyAsLong(elementos.get(i)));
+        }
+        return total;
+    }
+
+    /**
+     * Reparte un monto en partes que difieren a lo sumo en un centavo y que suman exactamente el total.
+     * Los centavos sobrantes de la división van a las primeras partes.
+     */
+    public static long[] repartir(long total, int partes) {
+        if (partes <= 0) {
+            throw new IllegalArgumentException("El número de partes debe ser mayor a 0");
+        }
+        long base = total / partes;
+        long resto = total % partes;
+        long[] montos = new long[partes];
+        for (int i = 0; i < partes; i++) {
+            montos[i] = i < resto ? base + 1 : base;
+        }
+        return montos;
+    }
+
+    /**
+     * Porcentaje de un monto, redondeado al centavo
+     */
+    public static long porcentaje(long centavos, double porcentaje) {
+        return BigDecimal.valueOf(centavos)
+                .multiply(BigDecimal.valueOf(porcentaje))
+                .movePointLeft(2)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,86 @@
+package co.edu.uceva.celularservice.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de cadenas, seguro entre hilos y sin locks.
+ * Responde "seguro que no está" o "puede que esté": sirve para descartar en memoria
+ * la gran mayoría de consultas y llevar a la base de datos solo los posibles positivos.
+ * No admite borrados; para quitar elementos se construye uno nuevo.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+    private final int capacidad;
+    private final AtomicInteger insertados = new AtomicInteger();
+
+    /**
+     * @param capacidad     elementos esperados
+     * @param falsoPositivo probabilidad de falso positivo con la capacidad completa (ej. 0.01)
+     */
+    public BloomFilter(int capacidad, double falsoPositivo) {
+        this.capacidad = Math.max(1, capacidad);
+        long m = (long) Math.ceil(-this.capacidad * Math.log(falsoPositivo) / (Math.log(2) * Math.log(2)));
+        int palabras = (int) Math.min(Integer.MAX_VALUE / 64, Math.max(1, (m + 63) / 64));
+        this.bits = new AtomicLongArray(palabras);
+        this.numBits = (long) palabras * 64;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / this.capacidad * Math.log(2)));
+    }
+
+    public void put(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = bits.get(palabra);
+            } while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara));
+        }
+        insertados.incrementAndGet();
+    }
+
+    public boolean mightContain(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getInsertados() {
+        return insertados.get();
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+
+    // FNV-1a de 64 bits con mezcla final para repartir bien los bits
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    private static long mezclar(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,126 @@
+package co.edu.uceva.celularservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PasswordEncoder BCrypt que ejecuta cada encode/matches en un pool propio y acotado.
+ * Así una ráfaga de logins no ocupa todos los hilos de Tomcat: cuando la cola se llena
+ * se rechaza de inmediato con {@link PasswordHashingRejectedException}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COSTO = Pattern.compile("\\A\\$2[abyx]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer esperaTimer;
+    private final Counter rechazos;
+
+    public BoundedPasswordEncoder(int strength, int hilos, int capacidadCola, long retryAfterSeconds,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacidadCola),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .description("Tiempo de cálculo BCrypt")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "matches")
+                .description("Tiempo de cálculo BCrypt")
+                .register(meterRegistry);
+        this.esperaTimer = Timer.builder("auth.password.queue.wait")
+                .description("Tiempo en cola antes de calcular el hash")
+                .register(meterRegistry);
+        this.rechazos = Counter.builder("auth.password.rejected")
+                .description("Operaciones rechazadas por cola llena")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .description("Operaciones de hashing en espera")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones de hashing en curso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Pide re-hash (en el siguiente login exitoso) cuando el costo del hash guardado
+     * es distinto al configurado, tanto si se subió como si se bajó
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COSTO.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T ejecutar(Supplier<T> operacion, Timer timer) {
+        long encolado = System.nanoTime();
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(() -> {
+                esperaTimer.record(System.nanoTime() - encolado, TimeUnit.NANOSECONDS);
+                return timer.record(operacion);
+            });
+        } catch (RejectedExecutionException e) {
+            rechazos.increment();
+            throw new PasswordHashingRejectedException(retryAfterSeconds);
+        }
+
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new IllegalStateException("Hashing de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
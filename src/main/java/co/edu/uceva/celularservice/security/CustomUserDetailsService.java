@@ -3,36 +3,93 @@ package co.edu.uceva.celularservice.security;
 import co.edu.uceva.celularservice.model.dao.UsuarioDao;
 import co.edu.uceva.celularservice.model.entities.Usuario;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UsuarioDao usuarioDao;
 
+    // Tiempo (ms) que se recuerda que un username no existe
+    @Value("${app.security.unknown-user-cache.ttl:30000}")
+    private long desconocidosTtlMs;
+
+    @Value("${app.security.unknown-user-cache.max-size:10000}")
+    private int desconocidosMaxSize;
+
+    // Usernames inexistentes consultados hace poco (username -> expiración en ms)
+    private final Map<String, Long> desconocidos = new ConcurrentHashMap<>();
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Usuario usuario = usuarioDao.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
+        if (esDesconocido(username)) {
+            throw new UsernameNotFoundException("Usuario no encontrado: " + username);
+        }
+
+        Usuario usuario = usuarioDao.findByUsername(username).orElse(null);
+        if (usuario == null) {
+            recordarDesconocido(username);
+            throw new UsernameNotFoundException("Usuario no encontrado: " + username);
+        }
+
+        return UsuarioPrincipal.desde(usuario);
+    }
 
-        return User.builder()
-                .username(usuario.getUsername())
-                .password(usuario.getPassword())
-                .authorities(getAuthorities(usuario))
+    /**
+     * Guarda el hash regenerado cuando cambia el costo BCrypt configurado (lo invoca DaoAuthenticationProvider)
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        usuarioDao.actualizarPassword(user.getUsername(), newPassword);
+        if (user instanceof UsuarioPrincipal principal) {
+            return principal.conPassword(newPassword);
+        }
+        return User.withUserDetails(user)
+                .password(newPassword)
                 .build();
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(Usuario usuario) {
-        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + usuario.getRol()));
+    /**
+     * Quita un username de la cache negativa (al crear o renombrar un usuario)
+     */
+    public void olvidarDesconocido(String username) {
+        if (username != null) {
+            desconocidos.remove(username);
+        }
+    }
+
+    private boolean esDesconocido(String username) {
+        Long expira = desconocidos.get(username);
+        if (expira == null) {
+            return false;
+        }
+        if (expira <= System.currentTimeMillis()) {
+            desconocidos.remove(username, expira);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordarDesconocido(String username) {
+        long ahora = System.currentTimeMillis();
+        if (desconocidos.size() >= desconocidosMaxSize) {
+            desconocidos.values().removeIf(expira -> expira <= ahora);
+            if (desconocidos.size() >= desconocidosMaxSize) {
+                return;
+            }
+        }
+        desconocidos.put(username, ahora + desconocidosTtlMs);
     }
 }
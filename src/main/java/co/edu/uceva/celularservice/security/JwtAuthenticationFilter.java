@@ -1,5 +1,11 @@
 package co.edu.uceva.celularservice.security;
 
+import co.edu.uceva.celularservice.config.SecurityConfig;
+import co.edu.uceva.celularservice.model.service.TokenRevocacionService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,11 +16,16 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -25,17 +36,60 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsService userDetailsService;
 
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenVersionCache tokenVersionCache;
+
+    @Autowired
+    private TokenRevocacionService tokenRevocacionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Rutas permitAll: no necesitan token, así que no se procesa (los health checks llegan cada pocos segundos)
+    private final RequestMatcher rutasPublicas = new OrRequestMatcher(Arrays.stream(SecurityConfig.RUTAS_PUBLICAS)
+            .map(AntPathRequestMatcher::new)
+            .toArray(RequestMatcher[]::new));
+
+    // Tiempo de cada etapa de la autenticación
+    private Timer parseTimer;
+    private Timer verifyTimer;
+    private Timer principalTimer;
+    private Timer versionTimer;
+    private Timer revocationTimer;
+
+    @PostConstruct
+    void registrarMetricas() {
+        parseTimer = etapa("parse", "Lectura del header y búsqueda del token en la cache");
+        verifyTimer = etapa("verify", "Verificación de firma y claims (solo si no estaba en cache)");
+        principalTimer = etapa("principal", "Resolución del usuario del token (solo si no estaba en cache)");
+        versionTimer = etapa("version", "Comprobación de la versión de token del usuario");
+        revocationTimer = etapa("revocation", "Comprobación de revocación (logout) del token");
+    }
+
+    private Timer etapa(String nombre, String descripcion) {
+        return Timer.builder("auth.filter.stage")
+                .tag("stage", nombre)
+                .description(descripcion)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return rutasPublicas.matches(request);
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         try {
-            String jwt = getJwtFromRequest(request);
-
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
+            VerifiedTokenCache.Entrada entrada = resolverToken(request);
 
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (entrada != null && versionVigente(entrada.claims()) && !revocado(entrada.claims())) {
+                UserDetails userDetails = entrada.principal();
                 UsernamePasswordAuthenticationToken authentication = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 
@@ -50,6 +104,96 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Obtiene el token desde la cache o, si no está, lo verifica una sola vez y resuelve el usuario
+     */
+    private VerifiedTokenCache.Entrada resolverToken(HttpServletRequest request) {
+        long inicio = System.nanoTime();
+        String jwt = getJwtFromRequest(request);
+        if (!StringUtils.hasText(jwt)) {
+            return null;
+        }
+        VerifiedTokenCache.Entrada entrada = tokenCache.get(jwt);
+        inicio = registrar(parseTimer, inicio);
+        if (entrada != null) {
+            return entrada;
+        }
+
+        Claims claims = tokenProvider.getValidClaims(jwt);
+        inicio = registrar(verifyTimer, inicio);
+        if (claims == null) {
+            return null;
+        }
+
+        try {
+            UserDetails userDetails = esAutocontenido(claims)
+                    ? principalDesdeClaims(claims)
+                    : userDetailsService.loadUserByUsername(claims.getSubject());
+            return tokenCache.put(jwt, claims, userDetails);
+        } finally {
+            registrar(principalTimer, inicio);
+        }
+    }
+
+    // Registra el tiempo transcurrido desde inicio y retorna el instante actual para la etapa siguiente
+    private long registrar(Timer timer, long inicio) {
+        long ahora = System.nanoTime();
+        timer.record(ahora - inicio, TimeUnit.NANOSECONDS);
+        return ahora;
+    }
+
+    /**
+     * Un token autocontenido trae id, rol y versión firmados; no necesita consultar el usuario
+     */
+    private boolean esAutocontenido(Claims claims) {
+        return tokenProvider.isSelfContained()
+                && claims.get(JwtTokenProvider.CLAIM_USUARIO_ID) != null
+                && claims.get(JwtTokenProvider.CLAIM_ROL) != null
+                && claims.get(JwtTokenProvider.CLAIM_VERSION) != null;
+    }
+
+    private UserDetails principalDesdeClaims(Claims claims) {
+        return new UsuarioPrincipal(
+                claims.get(JwtTokenProvider.CLAIM_USUARIO_ID, Long.class),
+                claims.getSubject(),
+                null,
+                null,
+                claims.get(JwtTokenProvider.CLAIM_ROL, String.class),
+                claims.get(JwtTokenProvider.CLAIM_VERSION, Integer.class)
+        );
+    }
+
+    /**
+     * Compara la versión firmada en el token con la vigente del usuario (consulta cacheada).
+     * Los tokens emitidos antes de incluir la versión no la traen y se aceptan hasta que expiran.
+     */
+    private boolean versionVigente(Claims claims) {
+        Integer version = claims.get(JwtTokenProvider.CLAIM_VERSION, Integer.class);
+        if (version == null) {
+            return true;
+        }
+        Long usuarioId = claims.get(JwtTokenProvider.CLAIM_USUARIO_ID, Long.class);
+        long inicio = System.nanoTime();
+        try {
+            return tokenVersionCache.esVigente(usuarioId, version);
+        } finally {
+            registrar(versionTimer, inicio);
+        }
+    }
+
+    /**
+     * Los tokens cerrados con logout se descartan en memoria con el filtro de Bloom; solo un posible
+     * positivo llega a la base de datos
+     */
+    private boolean revocado(Claims claims) {
+        long inicio = System.nanoTime();
+        try {
+            return tokenRevocacionService.estaRevocado(claims);
+        } finally {
+            registrar(revocationTimer, inicio);
+        }
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,55 @@
+package co.edu.uceva.celularservice.security;
+
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conjunto inmutable de claves HMAC identificadas por "kid".
+ * La clave activa firma los tokens nuevos; las demás solo verifican tokens emitidos antes de una rotación.
+ */
+final class JwtKeyRing {
+
+    private final String activeKid;
+    private final Map<String, SecretKey> claves;
+
+    private JwtKeyRing(String activeKid, Map<String, SecretKey> claves) {
+        this.activeKid = activeKid;
+        this.claves = Collections.unmodifiableMap(claves);
+    }
+
+    /**
+     * Construye las claves a partir de sus secretos. El kid activo debe estar entre ellos.
+     */
+    static JwtKeyRing desde(String activeKid, Map<String, String> secretos) {
+        if (!secretos.containsKey(activeKid)) {
+            throw new IllegalArgumentException("No hay secreto para el kid activo: " + activeKid);
+        }
+        Map<String, SecretKey> claves = new LinkedHashMap<>();
+        secretos.forEach((kid, secreto) ->
+                claves.put(kid, Keys.hmacShaKeyFor(secreto.getBytes(StandardCharsets.UTF_8))));
+        return new JwtKeyRing(activeKid, claves);
+    }
+
+    String getActiveKid() {
+        return activeKid;
+    }
+
+    SecretKey claveDeFirma() {
+        return claves.get(activeKid);
+    }
+
+    /**
+     * Clave para verificar un token. Los tokens emitidos antes de usar kid no lo traen y se verifican con la activa.
+     */
+    SecretKey buscar(String kid) {
+        if (kid == null) {
+            return claveDeFirma();
+        }
+        return claves.get(kid);
+    }
+}
@@ -1,76 +1,218 @@
 package co.edu.uceva.celularservice.security;
 
+import co.edu.uceva.celularservice.model.entities.Usuario;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Key;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    // Los tokens inválidos los controla el cliente: se registran con límite para no inundar el log
+    private static final LogLimitado logLimitado = new LogLimitado(log, 10);
+
+    // Claims propios del token (el rol solo viaja en el modo autocontenido)
+    public static final String CLAIM_USUARIO_ID = "uid";
+    public static final String CLAIM_ROL = "rol";
+    public static final String CLAIM_VERSION = "ver";
+
+    // Entrada del archivo de claves que indica cuál firma
+    private static final String ARCHIVO_KID_ACTIVO = "active-kid";
+
     @Value("${app.jwt.secret:MySecretKeyForJWTTokenGenerationThatNeedsToBeAtLeast256BitsLongForHS256Algorithm}")
     private String jwtSecret;
 
+    // Identificador (kid) de la clave configurada en app.jwt.secret
+    @Value("${app.jwt.kid:k1}")
+    private String jwtKid;
+
+    // Claves anteriores que solo verifican, en formato kid:secreto separadas por coma
+    @Value("${app.jwt.previous-keys:}")
+    private String previousKeys;
+
+    // Archivo .properties opcional (kid=secreto y active-kid=...) que se relee para rotar claves sin reiniciar
+    @Value("${app.jwt.keys-file:}")
+    private String keysFile;
+
     @Value("${app.jwt.expiration:86400000}") // 24 horas en milisegundos
     private long jwtExpirationMs;
 
+    // Si está activo, el rol del usuario también viaja firmado en el token y no hace falta cargarlo
+    @Value("${app.jwt.self-contained:false}")
+    private boolean selfContained;
+
+    // Las claves se derivan una sola vez y se reemplazan completas al rotar
+    private volatile JwtKeyRing keyRing;
+
+    // El parser es inmutable y seguro entre hilos; busca la clave por el kid del header
+    private JwtParser parser;
+
+    private long keysFileModificado = -1;
+
+    @PostConstruct
+    void init() {
+        Map<String, String> secretos = new LinkedHashMap<>();
+        secretos.put(jwtKid, jwtSecret);
+        for (String entrada : StringUtils.commaDelimitedListToStringArray(previousKeys)) {
+            String[] partes = entrada.trim().split(":", 2);
+            if (partes.length == 2) {
+                secretos.putIfAbsent(partes[0], partes[1]);
+            }
+        }
+        keyRing = JwtKeyRing.desde(jwtKid, secretos);
+        recargarArchivoDeClaves();
+
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        SecretKey key = keyRing.buscar(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Clave desconocida: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Relee el archivo de claves si cambió. Permite agregar una clave nueva, activarla
+     * y conservar la anterior para los tokens vigentes sin reiniciar el servicio.
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.keys-file-check:60000}")
+    public synchronized void recargarArchivoDeClaves() {
+        if (!StringUtils.hasText(keysFile)) {
+            return;
+        }
+        Path archivo = Path.of(keysFile);
+        try {
+            long modificado = Files.getLastModifiedTime(archivo).toMillis();
+            if (modificado == keysFileModificado) {
+                return;
+            }
+            Properties propiedades = new Properties();
+            try (InputStream in = Files.newInputStream(archivo)) {
+                propiedades.load(in);
+            }
+            Map<String, String> secretos = new LinkedHashMap<>();
+            for (String kid : propiedades.stringPropertyNames()) {
+                if (!ARCHIVO_KID_ACTIVO.equals(kid)) {
+                    secretos.put(kid, propiedades.getProperty(kid));
+                }
+            }
+            keyRing = JwtKeyRing.desde(propiedades.getProperty(ARCHIVO_KID_ACTIVO, jwtKid), secretos);
+            keysFileModificado = modificado;
+        } catch (IOException | IllegalArgumentException ex) {
+            log.error("Could not load JWT keys file {}: {}", keysFile, ex.getMessage());
+        }
+    }
+
     // Generar token JWT
     public String generateToken(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UsuarioPrincipal principal) {
+            return generateToken(principal);
+        }
         UserDetails userDetails = (UserDetails) authentication.getPrincipal();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        JwtKeyRing claves = keyRing;
 
         return Jwts.builder()
+                .header().keyId(claves.getActiveKid()).and()
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(key)
+                .signWith(claves.claveDeFirma())
                 .compact();
     }
 
+    // Generar token JWT a partir del usuario ya cargado
+    public String generateToken(Usuario usuario) {
+        return generateToken(UsuarioPrincipal.desde(usuario));
+    }
+
+    // Generar token JWT a partir del principal autenticado (sin volver a consultar el usuario)
+    public String generateToken(UsuarioPrincipal principal) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+
+        JwtKeyRing claves = keyRing;
+
+        JwtBuilder builder = Jwts.builder()
+                .header().keyId(claves.getActiveKid()).and()
+                .id(UUID.randomUUID().toString())
+                .subject(principal.getUsername())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                // Id y versión permiten invalidar todas las sesiones del usuario ("cerrar todas las sesiones")
+                .claim(CLAIM_USUARIO_ID, principal.getId())
+                .claim(CLAIM_VERSION, principal.getTokenVersion());
+
+        if (selfContained) {
+            builder.claim(CLAIM_ROL, principal.getRol());
+        }
+
+        return builder.signWith(claves.claveDeFirma()).compact();
+    }
+
+    public boolean isSelfContained() {
+        return selfContained;
+    }
+
     // Obtener username del token
     public String getUsernameFromToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-        
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+        return parser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
     }
 
     // Validar token JWT
     public boolean validateToken(String authToken) {
+        return getValidClaims(authToken) != null;
+    }
+
+    // Validar token JWT y obtener sus claims con una sola verificación de firma (null si es inválido)
+    public Claims getValidClaims(String authToken) {
         try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(authToken);
-            
-            return true;
-        } catch (SecurityException ex) {
-            System.err.println("Invalid JWT signature");
-        } catch (MalformedJwtException ex) {
-            System.err.println("Invalid JWT token");
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (ExpiredJwtException ex) {
-            System.err.println("Expired JWT token");
+            // Es lo normal cuando el cliente aún no ha renovado el token
+            log.debug("Expired JWT token");
+        } catch (io.jsonwebtoken.security.SecurityException ex) {
+            logLimitado.warn("firma", "Invalid JWT signature");
+        } catch (MalformedJwtException ex) {
+            logLimitado.warn("formato", "Invalid JWT token");
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Unsupported JWT token");
+            logLimitado.warn("soporte", "Unsupported JWT token: " + ex.getMessage());
+        } catch (JwtException ex) {
+            logLimitado.warn("otro", "Invalid JWT token: " + ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string is empty");
+            log.debug("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
 }
@@ -0,0 +1,44 @@
+package co.edu.uceva.celularservice.security;
+
+import org.slf4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log con límite de mensajes por motivo. Un cliente que envía tokens inválidos en bucle
+ * no debe llenar el log ni serializar los hilos escribiendo en él: pasado el límite los mensajes
+ * se cuentan y el total omitido se informa en el siguiente mensaje que sí se escribe.
+ */
+public class LogLimitado {
+
+    private final Logger log;
+    private final TokenBucketRateLimiter limite;
+    private final Map<String, AtomicLong> omitidos = new ConcurrentHashMap<>();
+
+    /**
+     * @param porMinuto mensajes por minuto que se escriben para cada motivo
+     */
+    public LogLimitado(Logger log, int porMinuto) {
+        this.log = log;
+        this.limite = new TokenBucketRateLimiter(porMinuto, porMinuto, 1000);
+    }
+
+    public void warn(String motivo, String mensaje) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        AtomicLong contador = omitidos.computeIfAbsent(motivo, k -> new AtomicLong());
+        if (limite.intentar(motivo) > 0) {
+            contador.incrementAndGet();
+            return;
+        }
+        long previos = contador.getAndSet(0);
+        if (previos > 0) {
+            log.warn("{} ({} mensajes similares omitidos)", mensaje, previos);
+        } else {
+            log.warn(mensaje);
+        }
+    }
+}
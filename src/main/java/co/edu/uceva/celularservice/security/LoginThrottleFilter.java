@@ -0,0 +1,227 @@
+package co.edu.uceva.celularservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Limita los intentos de login y registro por dirección remota y por username.
+ * Corre antes de la autenticación, así que un intento rechazado no llega a BCrypt ni a la base de datos.
+ */
+@Component
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final String LOGIN = "/api/v1/auth/login";
+    private static final String REGISTER = "/api/v1/auth/register";
+
+    // Un login o registro legítimo es pequeño; no se lee más que esto para buscar el username
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    // Clave (que no puede ser un username) de la cubeta de los cuerpos sin Content-Length que superan el máximo
+    private static final String CLAVE_CUERPO_GRANDE = "\0cuerpo-grande";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.security.login-throttle.ip.capacity:20}")
+    private int ipCapacidad;
+
+    @Value("${app.security.login-throttle.ip.per-minute:20}")
+    private int ipPorMinuto;
+
+    @Value("${app.security.login-throttle.username.capacity:5}")
+    private int usernameCapacidad;
+
+    @Value("${app.security.login-throttle.username.per-minute:5}")
+    private int usernamePorMinuto;
+
+    @Value("${app.security.login-throttle.max-keys:10000}")
+    private int maxClaves;
+
+    private TokenBucketRateLimiter porIp;
+    private TokenBucketRateLimiter porUsername;
+    private Counter rechazosIp;
+    private Counter rechazosUsername;
+
+    @PostConstruct
+    void init() {
+        porIp = new TokenBucketRateLimiter(ipCapacidad, ipPorMinuto, maxClaves);
+        porUsername = new TokenBucketRateLimiter(usernameCapacidad, usernamePorMinuto, maxClaves);
+
+        rechazosIp = Counter.builder("auth.throttle.rejected").tag("key", "ip").register(meterRegistry);
+        rechazosUsername = Counter.builder("auth.throttle.rejected").tag("key", "username").register(meterRegistry);
+        Gauge.builder("auth.throttle.buckets", porIp, TokenBucketRateLimiter::size).tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.throttle.buckets", porUsername, TokenBucketRateLimiter::size).tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String ruta = request.getServletPath();
+        return !"POST".equals(request.getMethod()) || !(LOGIN.equals(ruta) || REGISTER.equals(ruta));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        long espera = porIp.intentar(request.getRemoteAddr());
+        if (espera > 0) {
+            rechazosIp.increment();
+            rechazar(response, espera);
+            return;
+        }
+
+        // Con Content-Length declarado se rechaza sin leer nada del cuerpo
+        if (request.getContentLengthLong() > MAX_BODY_BYTES) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            return;
+        }
+
+        // Sin él (chunked) se leen a lo sumo MAX_BODY_BYTES + 1 bytes: si hay más, el username no se busca
+        // y el intento se cuenta en una cubeta compartida por todos los cuerpos demasiado grandes
+        InputStream entrada = request.getInputStream();
+        byte[] body = entrada.readNBytes(MAX_BODY_BYTES + 1);
+        boolean completo = body.length <= MAX_BODY_BYTES;
+
+        String username = completo ? extraerUsername(body) : CLAVE_CUERPO_GRANDE;
+        if (username != null) {
+            espera = porUsername.intentar(username);
+            if (espera > 0) {
+                rechazosUsername.increment();
+                rechazar(response, espera);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyRequest(request, body, completo ? null : entrada), response);
+    }
+
+    private String extraerUsername(byte[] body) {
+        try {
+            JsonNode username = objectMapper.readTree(body).get("username");
+            return username != null && username.isTextual()
+                    ? username.asText().trim().toLowerCase(Locale.ROOT)
+                    : null;
+        } catch (IOException | RuntimeException e) {
+            // El controlador responde al cuerpo inválido; aquí solo interesa el username
+            return null;
+        }
+    }
+
+    private void rechazar(HttpServletResponse response, long esperaMs) throws IOException {
+        long segundos = Math.max(1, (esperaMs + 999) / 1000);
+        Map<String, String> error = new LinkedHashMap<>();
+        error.put("error", "Demasiados intentos");
+        error.put("message", "Intenta de nuevo en " + segundos + " s");
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundos));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+
+    /**
+     * Petición que vuelve a entregar el cuerpo ya leído para buscar el username,
+     * seguido del resto sin leer cuando el cuerpo superaba el máximo
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+        private final boolean completo;
+        private final InputStream in;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body, InputStream resto) {
+            super(request);
+            this.body = body;
+            this.completo = resto == null;
+            this.in = completo
+                    ? new ByteArrayInputStream(body)
+                    : new SequenceInputStream(new ByteArrayInputStream(body), resto);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return new ServletInputStream() {
+                private boolean terminado;
+
+                @Override
+                public boolean isFinished() {
+                    return terminado;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() throws IOException {
+                    int b = in.read();
+                    terminado = b < 0;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int leidos = in.read(b, off, len);
+                    terminado = leidos < 0;
+                    return leidos;
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return completo ? body.length : super.getContentLength();
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return completo ? body.length : super.getContentLengthLong();
+        }
+    }
+}
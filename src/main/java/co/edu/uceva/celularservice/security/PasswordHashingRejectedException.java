@@ -0,0 +1,19 @@
+package co.edu.uceva.celularservice.security;
+
+/**
+ * Se lanza cuando la cola de hashing de contraseñas está llena.
+ * El controlador la traduce en un 503 con Retry-After en lugar de bloquear hilos de Tomcat.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingRejectedException(long retryAfterSeconds) {
+        super("El servicio de autenticación está saturado, intenta de nuevo en " + retryAfterSeconds + " s");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
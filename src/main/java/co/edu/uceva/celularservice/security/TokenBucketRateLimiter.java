@@ -0,0 +1,94 @@
+package co.edu.uceva.celularservice.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sin locks por clave (username, IP...).
+ * Cada cubeta es un solo AtomicLong con el "instante teórico de llegada" (algoritmo GCRA):
+ * permitir un intento es un compareAndSet, y una cubeta cuyo instante ya pasó está llena,
+ * así que se puede descartar sin perder información. Cuando se alcanza el máximo de claves
+ * las nuevas comparten un arreglo fijo de cubetas por hash, de modo que la memoria queda acotada
+ * sin dejar de limitar.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int CUBETAS_COMPARTIDAS = 64;
+    private static final long BARRIDO_CADA_NS = TimeUnit.SECONDS.toNanos(30);
+
+    private final long intervaloNs;
+    private final long toleranciaNs;
+    private final int maxClaves;
+
+    private final Map<String, AtomicLong> cubetas = new ConcurrentHashMap<>();
+    private final AtomicLong[] compartidas = new AtomicLong[CUBETAS_COMPARTIDAS];
+    private final AtomicLong ultimoBarrido = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param capacidad  intentos que se pueden hacer seguidos con la cubeta llena
+     * @param porMinuto  intentos que se recuperan por minuto
+     * @param maxClaves  máximo de claves con cubeta propia
+     */
+    public TokenBucketRateLimiter(int capacidad, int porMinuto, int maxClaves) {
+        this.intervaloNs = TimeUnit.MINUTES.toNanos(1) / Math.max(1, porMinuto);
+        this.toleranciaNs = intervaloNs * Math.max(0, capacidad - 1);
+        this.maxClaves = maxClaves;
+        long ahora = System.nanoTime();
+        for (int i = 0; i < CUBETAS_COMPARTIDAS; i++) {
+            compartidas[i] = new AtomicLong(ahora);
+        }
+    }
+
+    /**
+     * Consume un intento para la clave.
+     * @return 0 si se permite, o los milisegundos que hay que esperar si se rechaza
+     */
+    public long intentar(String clave) {
+        long ahora = System.nanoTime();
+        barrerSiCorresponde(ahora);
+
+        AtomicLong cubeta = cubeta(clave, ahora);
+        while (true) {
+            long llegada = cubeta.get();
+            long base = Math.max(llegada, ahora);
+            if (base - toleranciaNs > ahora) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(base - toleranciaNs - ahora));
+            }
+            if (cubeta.compareAndSet(llegada, base + intervaloNs)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return cubetas.size();
+    }
+
+    private AtomicLong cubeta(String clave, long ahora) {
+        AtomicLong cubeta = cubetas.get(clave);
+        if (cubeta != null) {
+            return cubeta;
+        }
+        if (cubetas.size() >= maxClaves) {
+            barrer(ahora);
+            if (cubetas.size() >= maxClaves) {
+                return compartidas[(clave.hashCode() & 0x7fffffff) % CUBETAS_COMPARTIDAS];
+            }
+        }
+        return cubetas.computeIfAbsent(clave, k -> new AtomicLong(ahora));
+    }
+
+    private void barrerSiCorresponde(long ahora) {
+        long ultimo = ultimoBarrido.get();
+        if (ahora - ultimo >= BARRIDO_CADA_NS && ultimoBarrido.compareAndSet(ultimo, ahora)) {
+            barrer(ahora);
+        }
+    }
+
+    // Una cubeta cuyo instante teórico ya pasó está llena: equivale a no tenerla
+    private void barrer(long ahora) {
+        cubetas.values().removeIf(cubeta -> cubeta.get() <= ahora);
+    }
+}
@@ -0,0 +1,73 @@
+package co.edu.uceva.celularservice.security;
+
+import co.edu.uceva.celularservice.model.dao.UsuarioDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de la versión de token de cada usuario.
+ * Permite validar tokens autocontenidos sin cargar el usuario: basta con comparar el claim "ver"
+ * contra la versión vigente. Las entradas viven poco tiempo para que los cambios hechos en otra
+ * réplica también se noten, y se invalidan de inmediato cuando el cambio ocurre en esta.
+ */
+@Component
+public class TokenVersionCache {
+
+    // Versión usada para recordar que el usuario ya no existe
+    private static final int USUARIO_ELIMINADO = -1;
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Value("${app.jwt.version-cache.ttl:30000}")
+    private long ttlMs;
+
+    @Value("${app.jwt.version-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<Long, Version> versiones = new ConcurrentHashMap<>();
+
+    private record Version(int valor, long cargadaEnMs) {
+    }
+
+    /**
+     * Indica si un token emitido con la versión dada sigue vigente para el usuario
+     */
+    public boolean esVigente(Long usuarioId, int versionToken) {
+        if (usuarioId == null) {
+            return false;
+        }
+        int actual = obtenerVersion(usuarioId);
+        return actual != USUARIO_ELIMINADO && actual == versionToken;
+    }
+
+    /**
+     * Descarta la versión cacheada de un usuario (cambio de rol, username o eliminación)
+     */
+    public void invalidar(Long usuarioId) {
+        if (usuarioId != null) {
+            versiones.remove(usuarioId);
+        }
+    }
+
+    private int obtenerVersion(Long usuarioId) {
+        long ahora = System.currentTimeMillis();
+        Version version = versiones.get(usuarioId);
+        if (version != null && ahora - version.cargadaEnMs() < ttlMs) {
+            return version.valor();
+        }
+
+        int valor = usuarioDao.findTokenVersionById(usuarioId).orElse(USUARIO_ELIMINADO);
+        if (versiones.size() >= maxSize) {
+            versiones.entrySet().removeIf(e -> ahora - e.getValue().cargadaEnMs() >= ttlMs);
+        }
+        if (versiones.size() < maxSize) {
+            versiones.put(usuarioId, new Version(valor, ahora));
+        }
+        return valor;
+    }
+}
@@ -0,0 +1,89 @@
+package co.edu.uceva.celularservice.security;
+
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Principal autenticado con los datos del usuario que necesitan el login y la emisión del token,
+ * para no volver a consultar el Usuario después de autenticar.
+ */
+public class UsuarioPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String username;
+    private String password;
+    private final String correo;
+    private final String rol;
+    private final Integer tokenVersion;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    public UsuarioPrincipal(Long id, String username, String password, String correo, String rol, Integer tokenVersion) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.correo = correo;
+        this.rol = rol;
+        this.tokenVersion = tokenVersion;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + rol));
+    }
+
+    public static UsuarioPrincipal desde(Usuario usuario) {
+        return new UsuarioPrincipal(
+                usuario.getId(),
+                usuario.getUsername(),
+                usuario.getPassword(),
+                usuario.getCorreo(),
+                usuario.getRol(),
+                usuario.getTokenVersion()
+        );
+    }
+
+    /**
+     * Copia del principal con otro hash de contraseña (re-hash al cambiar el costo BCrypt)
+     */
+    public UsuarioPrincipal conPassword(String nuevoPassword) {
+        return new UsuarioPrincipal(id, username, nuevoPassword, correo, rol, tokenVersion);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getCorreo() {
+        return correo;
+    }
+
+    public String getRol() {
+        return rol;
+    }
+
+    public Integer getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
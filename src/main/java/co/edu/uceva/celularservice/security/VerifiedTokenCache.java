@@ -0,0 +1,177 @@
+package co.edu.uceva.celularservice.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache acotada de tokens JWT ya verificados.
+ * Guarda los claims y el principal resuelto hasta el "exp" del token, de modo que
+ * un cliente que reutiliza el mismo token no repite la verificación HMAC ni la consulta del usuario.
+ * La clave es el SHA-256 del token, nunca el token en claro.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Value("${app.jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public record Entrada(Claims claims, UserDetails principal, long expiraEnMs) {
+        boolean expirada(long ahoraMs) {
+            return ahoraMs >= expiraEnMs;
+        }
+    }
+
+    @PostConstruct
+    void registrarMetricas() {
+        FunctionCounter.builder("auth.token.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Tokens resueltos desde la cache")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Tokens que requirieron verificación completa")
+                .register(meterRegistry);
+        FunctionCounter.builder("auth.token.cache.evictions", evictions, AtomicLong::get)
+                .description("Entradas eliminadas por expiración o por tamaño")
+                .register(meterRegistry);
+        Gauge.builder("auth.token.cache.size", entradas, Map::size)
+                .description("Tokens verificados en cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca un token ya verificado. Retorna null si no está o si ya expiró.
+     */
+    public Entrada get(String token) {
+        String clave = digest(token);
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entrada.expirada(System.currentTimeMillis())) {
+            if (entradas.remove(clave, entrada)) {
+                evictions.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entrada;
+    }
+
+    /**
+     * Guarda un token verificado hasta su fecha de expiración. El principal se guarda sin el hash de la contraseña:
+     * la autorización no lo usa y no tiene por qué quedar en memoria mientras dure el token.
+     */
+    public Entrada put(String token, Claims claims, UserDetails principal) {
+        long expiraEn = claims.getExpiration() != null
+                ? claims.getExpiration().getTime()
+                : System.currentTimeMillis();
+        Entrada entrada = new Entrada(claims, sinCredenciales(principal), expiraEn);
+        if (entradas.size() >= maxSize) {
+            liberarEspacio();
+        }
+        entradas.put(digest(token), entrada);
+        return entrada;
+    }
+
+    private static UserDetails sinCredenciales(UserDetails principal) {
+        if (principal instanceof UsuarioPrincipal usuario) {
+            return usuario.getPassword() != null ? usuario.conPassword(null) : usuario;
+        }
+        if (principal instanceof CredentialsContainer credenciales) {
+            credenciales.eraseCredentials();
+        }
+        return principal;
+    }
+
+    /**
+     * Elimina todas las entradas cuyo principal coincide con el username dado
+     */
+    public void invalidarUsuario(String username) {
+        entradas.entrySet().removeIf(e -> {
+            boolean coincide = username.equals(e.getValue().claims().getSubject());
+            if (coincide) {
+                evictions.incrementAndGet();
+            }
+            return coincide;
+        });
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return entradas.size();
+    }
+
+    /**
+     * Primero descarta los tokens expirados; si la cache sigue llena libera
+     * alrededor de un 10% de las entradas (el orden del mapa es efectivamente aleatorio).
+     */
+    private void liberarEspacio() {
+        long ahora = System.currentTimeMillis();
+        entradas.entrySet().removeIf(e -> {
+            boolean expirada = e.getValue().expirada(ahora);
+            if (expirada) {
+                evictions.incrementAndGet();
+            }
+            return expirada;
+        });
+
+        int exceso = entradas.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = entradas.keySet().iterator();
+        while (exceso > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.incrementAndGet();
+            exceso--;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
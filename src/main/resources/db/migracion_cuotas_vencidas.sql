@@ -0,0 +1,12 @@
+-- Tabla de bloqueos de tareas programadas e índice para la actualización de cuotas vencidas. PostgreSQL.
+-- Ejecutar una sola vez en bases que conservan sus datos (DDL_AUTO=validate); con update o create-drop
+-- Hibernate crea la tabla y el índice.
+
+CREATE TABLE IF NOT EXISTS bloqueos_tareas (
+    nombre VARCHAR(64) PRIMARY KEY,
+    propietario VARCHAR(128),
+    bloqueado_hasta TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
+
+-- CONCURRENTLY no bloquea las escrituras sobre cuotas_ahorro mientras se crea (no puede ir dentro de BEGIN/COMMIT)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cuotas_ahorro_estado_fecha ON cuotas_ahorro (estado, fecha_programada);
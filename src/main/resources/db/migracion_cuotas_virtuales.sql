@@ -0,0 +1,14 @@
+-- Migración al cronograma de cuotas calculado (cuotas virtuales). PostgreSQL.
+-- Ejecutar una sola vez, antes de desplegar la versión con cuotas virtuales, en bases que conservan
+-- sus datos (DDL_AUTO=update o validate). Con create-drop el esquema se recrea y no hace falta.
+-- Las metas existentes quedan con cuotas_virtuales = false y conservan sus cuotas guardadas; solo las
+-- metas nuevas calculan su cronograma y guardan únicamente las cuotas pagadas.
+
+BEGIN;
+
+ALTER TABLE metas_ahorro ADD COLUMN IF NOT EXISTS cuotas_virtuales BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Una fila por número de cuota y meta: evita registrar dos veces el pago de la misma cuota virtual
+ALTER TABLE cuotas_ahorro ADD CONSTRAINT uk_cuotas_ahorro_meta_numero UNIQUE (meta_ahorro_id, numero_cuota);
+
+COMMIT;
@@ -0,0 +1,28 @@
+-- Agrega la fecha a ingresos y gastos. PostgreSQL.
+-- Ejecutar una sola vez, antes de desplegar la versión con la serie mensual, en bases que conservan
+-- sus datos (DDL_AUTO=update o validate). Los movimientos existentes quedan con la fecha de hoy.
+-- Después, POST /api/v1/admin/resumenes/reconstruir llena la tabla resumen_mensual.
+
+BEGIN;
+
+ALTER TABLE ingresos ADD COLUMN IF NOT EXISTS fecha DATE;
+UPDATE ingresos SET fecha = CURRENT_DATE WHERE fecha IS NULL;
+ALTER TABLE ingresos ALTER COLUMN fecha SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_ingresos_usuario_fecha ON ingresos (usuario_id, fecha);
+DROP INDEX IF EXISTS idx_ingresos_usuario;
+
+ALTER TABLE gastos ADD COLUMN IF NOT EXISTS fecha DATE;
+UPDATE gastos SET fecha = CURRENT_DATE WHERE fecha IS NULL;
+ALTER TABLE gastos ALTER COLUMN fecha SET NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_gastos_usuario_fecha ON gastos (usuario_id, fecha);
+DROP INDEX IF EXISTS idx_gastos_usuario;
+
+CREATE TABLE IF NOT EXISTS resumen_mensual (
+    usuario_id BIGINT NOT NULL,
+    periodo INTEGER NOT NULL,
+    ingresos BIGINT NOT NULL,
+    gastos BIGINT NOT NULL,
+    PRIMARY KEY (usuario_id, periodo)
+);
+
+COMMIT;
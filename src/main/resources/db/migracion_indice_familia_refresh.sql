@@ -0,0 +1,6 @@
+-- Índice para revocar una familia de refresh tokens. PostgreSQL.
+-- Ejecutar una sola vez en bases que conservan sus datos (DDL_AUTO=validate); con update o create-drop
+-- Hibernate crea el índice.
+
+-- CONCURRENTLY no bloquea los logins mientras se crea (no puede ir dentro de BEGIN/COMMIT)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_refresh_tokens_familia ON refresh_tokens (familia);
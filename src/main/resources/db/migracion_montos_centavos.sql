@@ -0,0 +1,48 @@
+-- Migración de los montos de DOUBLE PRECISION (pesos) a BIGINT (centavos). PostgreSQL.
+-- Ejecutar una sola vez, antes de desplegar la versión que usa centavos, en bases que conservan
+-- sus datos (DDL_AUTO=update o validate). Con create-drop el esquema se recrea y no hace falta.
+-- El valor se convierte a numeric antes de multiplicar para redondear al centavo sin error binario.
+
+BEGIN;
+
+ALTER TABLE ingresos RENAME COLUMN valor_ingreso TO valor_ingreso_centavos;
+ALTER TABLE ingresos ALTER COLUMN valor_ingreso_centavos TYPE BIGINT USING ROUND(valor_ingreso_centavos::numeric * 100);
+
+ALTER TABLE gastos RENAME COLUMN valor_gasto TO valor_gasto_centavos;
+ALTER TABLE gastos ALTER COLUMN valor_gasto_centavos TYPE BIGINT USING ROUND(valor_gasto_centavos::numeric * 100);
+
+ALTER TABLE metas_ahorro RENAME COLUMN monto_objetivo TO monto_objetivo_centavos;
+ALTER TABLE metas_ahorro ALTER COLUMN monto_objetivo_centavos TYPE BIGINT USING ROUND(monto_objetivo_centavos::numeric * 100);
+ALTER TABLE metas_ahorro RENAME COLUMN monto_ahorrado TO monto_ahorrado_centavos;
+ALTER TABLE metas_ahorro ALTER COLUMN monto_ahorrado_centavos TYPE BIGINT USING ROUND(monto_ahorrado_centavos::numeric * 100);
+ALTER TABLE metas_ahorro RENAME COLUMN valor_cuota TO valor_cuota_centavos;
+ALTER TABLE metas_ahorro ALTER COLUMN valor_cuota_centavos TYPE BIGINT USING ROUND(valor_cuota_centavos::numeric * 100);
+
+ALTER TABLE cuotas_ahorro RENAME COLUMN monto_cuota TO monto_cuota_centavos;
+ALTER TABLE cuotas_ahorro ALTER COLUMN monto_cuota_centavos TYPE BIGINT USING ROUND(monto_cuota_centavos::numeric * 100);
+
+-- Las cuotas sin pagar se reparten de nuevo para que la meta sume exactamente el objetivo:
+-- lo que falta (objetivo - ahorrado) se divide entre ellas y el sobrante va a las primeras
+WITH pendientes AS (
+    SELECT c.id,
+           ROW_NUMBER() OVER (PARTITION BY c.meta_ahorro_id ORDER BY c.numero_cuota) AS orden,
+           COUNT(*) OVER (PARTITION BY c.meta_ahorro_id) AS cantidad,
+           GREATEST(m.monto_objetivo_centavos - m.monto_ahorrado_centavos, 0) AS faltante
+    FROM cuotas_ahorro c
+    JOIN metas_ahorro m ON m.id = c.meta_ahorro_id
+    WHERE c.estado IN ('PENDIENTE', 'VENCIDA') AND m.estado = 'ACTIVA'
+)
+UPDATE cuotas_ahorro c
+SET monto_cuota_centavos = p.faltante / p.cantidad + CASE WHEN p.orden <= p.faltante % p.cantidad THEN 1 ELSE 0 END
+FROM pendientes p
+WHERE c.id = p.id;
+
+-- El resumen es derivado: se convierte igual y se puede recalcular con POST /api/v1/admin/resumenes/reconstruir
+ALTER TABLE resumen_usuario ALTER COLUMN total_ingresos TYPE BIGINT USING ROUND(total_ingresos::numeric * 100);
+ALTER TABLE resumen_usuario ALTER COLUMN ingresos_fijos TYPE BIGINT USING ROUND(ingresos_fijos::numeric * 100);
+ALTER TABLE resumen_usuario ALTER COLUMN ingresos_variables TYPE BIGINT USING ROUND(ingresos_variables::numeric * 100);
+ALTER TABLE resumen_usuario ALTER COLUMN total_gastos TYPE BIGINT USING ROUND(total_gastos::numeric * 100);
+ALTER TABLE resumen_usuario ALTER COLUMN gastos_fijos TYPE BIGINT USING ROUND(gastos_fijos::numeric * 100);
+ALTER TABLE resumen_usuario ALTER COLUMN gastos_variables TYPE BIGINT USING ROUND(gastos_variables::numeric * 100);
+
+COMMIT;
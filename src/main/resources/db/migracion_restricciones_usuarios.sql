@@ -0,0 +1,31 @@
+-- Nombres fijos para las restricciones únicas de username y correo. PostgreSQL.
+-- El registro distingue el mensaje de error (username o correo duplicado) por el nombre de la restricción;
+-- las bases creadas antes tienen los nombres generados por Hibernate (uk + hash). Ejecutar una sola vez en bases
+-- que conservan sus datos (DDL_AUTO=update o validate); con create-drop las restricciones ya se crean con su nombre.
+
+DO $$
+DECLARE
+    columna TEXT;
+    nombre TEXT;
+    actual TEXT;
+BEGIN
+    FOREACH columna IN ARRAY ARRAY['username', 'correo'] LOOP
+        nombre := 'uk_usuarios_' || columna;
+
+        -- Restricción única existente sobre esa sola columna, con el nombre que tenga
+        SELECT c.conname INTO actual
+        FROM pg_constraint c
+        JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1]
+        WHERE c.conrelid = 'usuarios'::regclass
+          AND c.contype = 'u'
+          AND array_length(c.conkey, 1) = 1
+          AND a.attname = columna
+        LIMIT 1;
+
+        IF actual IS NULL THEN
+            EXECUTE format('ALTER TABLE usuarios ADD CONSTRAINT %I UNIQUE (%I)', nombre, columna);
+        ELSIF actual <> nombre THEN
+            EXECUTE format('ALTER TABLE usuarios RENAME CONSTRAINT %I TO %I', actual, nombre);
+        END IF;
+    END LOOP;
+END $$;
@@ -0,0 +1,28 @@
+-- Migración de los ids de IDENTITY a secuencias que reservan de a 50 (optimizador pooled). PostgreSQL.
+-- Ejecutar una sola vez, antes de desplegar la versión que usa secuencias, en bases que conservan
+-- sus datos (DDL_AUTO=update o validate). Con create-drop el esquema se recrea y no hace falta.
+-- El incremento de cada secuencia debe ser igual al allocationSize de la entidad (50).
+
+BEGIN;
+
+-- Las columnas dejan de generar su id (DROP IDENTITY elimina también la secuencia interna)
+ALTER TABLE usuarios ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ingresos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE gastos ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE metas_ahorro ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cuotas_ahorro ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS usuarios_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS ingresos_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS gastos_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS metas_ahorro_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cuotas_ahorro_seq INCREMENT BY 50;
+
+-- Cada valor de la secuencia reserva los 50 ids anteriores, así que se ubica 50 por encima del id mayor
+SELECT setval('usuarios_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM usuarios));
+SELECT setval('ingresos_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM ingresos));
+SELECT setval('gastos_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM gastos));
+SELECT setval('metas_ahorro_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM metas_ahorro));
+SELECT setval('cuotas_ahorro_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM cuotas_ahorro));
+
+COMMIT;
@@ -0,0 +1,5 @@
+-- Columna de versión (bloqueo optimista) de las metas de ahorro. PostgreSQL.
+-- Ejecutar una sola vez en bases que conservan sus datos (DDL_AUTO=validate); con update o create-drop
+-- Hibernate crea la columna.
+
+ALTER TABLE metas_ahorro ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -1,24 +1,40 @@
+-- Los ids salen de secuencias que reservan de a 50 (allocationSize); los datos de ejemplo usan ids fijos
+-- y al final las secuencias se reinician para que los ids generados empiecen después de ellos
 -- Insertar usuarios de ejemplo
-INSERT INTO usuarios (rol, correo, username, password) VALUES ('ADMIN', 'admin@easysave.com', 'admin', 'admin123');
-INSERT INTO usuarios (rol, correo, username, password) VALUES ('USER', 'juan@gmail.com', 'juan', 'juan123');
-INSERT INTO usuarios (rol, correo, username, password) VALUES ('USER', 'maria@gmail.com', 'maria', 'maria123');
+INSERT INTO usuarios (id, rol, correo, username, password) VALUES (1, 'ADMIN', 'admin@easysave.com', 'admin', 'admin123');
+INSERT INTO usuarios (id, rol, correo, username, password) VALUES (2, 'USER', 'juan@gmail.com', 'juan', 'juan123');
+INSERT INTO usuarios (id, rol, correo, username, password) VALUES (3, 'USER', 'maria@gmail.com', 'maria', 'maria123');
 
+-- Los montos se guardan en centavos
 -- Insertar ingresos de ejemplo para el usuario juan (id=2)
-INSERT INTO ingresos (nombre_ingreso, valor_ingreso, estado_ingreso, usuario_id) VALUES ('Salario', 3000000, 'fijo', 2);
-INSERT INTO ingresos (nombre_ingreso, valor_ingreso, estado_ingreso, usuario_id) VALUES ('Freelance', 500000, 'variable', 2);
-INSERT INTO ingresos (nombre_ingreso, valor_ingreso, estado_ingreso, usuario_id) VALUES ('Ventas Online', 200000, 'variable', 2);
+INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (1, 'Salario', 300000000, 'fijo', '2025-08-01', 2);
+INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (2, 'Freelance', 50000000, 'variable', '2025-09-15', 2);
+INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (3, 'Ventas Online', 20000000, 'variable', '2025-10-05', 2);
 
 -- Insertar gastos de ejemplo para el usuario juan (id=2)
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Arriendo', 800000, 'fijo', 2);
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Servicios', 200000, 'fijo', 2);
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Mercado', 400000, 'variable', 2);
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Entretenimiento', 150000, 'variable', 2);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (1, 'Arriendo', 80000000, 'fijo', '2025-08-03', 2);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (2, 'Servicios', 20000000, 'fijo', '2025-08-10', 2);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (3, 'Mercado', 40000000, 'variable', '2025-09-12', 2);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (4, 'Entretenimiento', 15000000, 'variable', '2025-10-20', 2);
 
 -- Insertar ingresos de ejemplo para el usuario maria (id=3)
-INSERT INTO ingresos (nombre_ingreso, valor_ingreso, estado_ingreso, usuario_id) VALUES ('Salario', 2500000, 'fijo', 3);
-INSERT INTO ingresos (nombre_ingreso, valor_ingreso, estado_ingreso, usuario_id) VALUES ('Bonificación', 300000, 'variable', 3);
+INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (4, 'Salario', 250000000, 'fijo', '2025-09-01', 3);
+INSERT INTO ingresos (id, nombre_ingreso, valor_ingreso_centavos, estado_ingreso, fecha, usuario_id) VALUES (5, 'Bonificación', 30000000, 'variable', '2025-10-18', 3);
 
 -- Insertar gastos de ejemplo para el usuario maria (id=3)
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Arriendo', 700000, 'fijo', 3);
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Transporte', 150000, 'fijo', 3);
-INSERT INTO gastos (nombre_gasto, valor_gasto, estado_gasto, usuario_id) VALUES ('Alimentación', 300000, 'variable', 3);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (5, 'Arriendo', 70000000, 'fijo', '2025-09-03', 3);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (6, 'Transporte', 15000000, 'fijo', '2025-09-07', 3);
+INSERT INTO gastos (id, nombre_gasto, valor_gasto_centavos, estado_gasto, fecha, usuario_id) VALUES (7, 'Alimentación', 30000000, 'variable', '2025-10-11', 3);
+
+-- Resumen de totales por usuario (se mantiene con cada alta, cambio o baja de ingresos y gastos)
+INSERT INTO resumen_usuario (usuario_id, total_ingresos, ingresos_fijos, ingresos_variables, total_gastos, gastos_fijos, gastos_variables) SELECT u.id, (SELECT COALESCE(SUM(i.valor_ingreso_centavos), 0) FROM ingresos i WHERE i.usuario_id = u.id), (SELECT COALESCE(SUM(i.valor_ingreso_centavos), 0) FROM ingresos i WHERE i.usuario_id = u.id AND LOWER(i.estado_ingreso) = 'fijo'), (SELECT COALESCE(SUM(i.valor_ingreso_centavos), 0) FROM ingresos i WHERE i.usuario_id = u.id AND LOWER(i.estado_ingreso) = 'variable'), (SELECT COALESCE(SUM(g.valor_gasto_centavos), 0) FROM gastos g WHERE g.usuario_id = u.id), (SELECT COALESCE(SUM(g.valor_gasto_centavos), 0) FROM gastos g WHERE g.usuario_id = u.id AND LOWER(g.estado_gasto) = 'fijo'), (SELECT COALESCE(SUM(g.valor_gasto_centavos), 0) FROM gastos g WHERE g.usuario_id = u.id AND LOWER(g.estado_gasto) = 'variable') FROM usuarios u;
+
+-- Totales por usuario y mes (periodo = año * 100 + mes) para la serie mensual
+INSERT INTO resumen_mensual (usuario_id, periodo, ingresos, gastos) SELECT t.usuario_id, t.periodo, SUM(t.ingresos), SUM(t.gastos) FROM (SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha) AS periodo, valor_ingreso_centavos AS ingresos, 0 AS gastos FROM ingresos UNION ALL SELECT usuario_id, EXTRACT(YEAR FROM fecha) * 100 + EXTRACT(MONTH FROM fecha), 0, valor_gasto_centavos FROM gastos) t GROUP BY t.usuario_id, t.periodo;
+
+-- Con RESTART WITH 100 el primer bloque que reserva Hibernate es 51..100
+ALTER SEQUENCE usuarios_seq RESTART WITH 100;
+ALTER SEQUENCE ingresos_seq RESTART WITH 100;
+ALTER SEQUENCE gastos_seq RESTART WITH 100;
+ALTER SEQUENCE metas_ahorro_seq RESTART WITH 100;
+ALTER SEQUENCE cuotas_ahorro_seq RESTART WITH 100;
@@ -0,0 +1,125 @@
+package co.edu.uceva.celularservice.controller;
+
+import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.UsuarioDao;
+import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.service.DatosDePrueba;
+import co.edu.uceva.celularservice.model.service.MetaAhorroServiceImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los detalles de las metas de un usuario deben costar el mismo número de sentencias SQL
+ * sin importar cuántas metas (con cuotas guardadas o virtuales) y cuotas tenga.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser
+class MetaAhorroDetallesQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private MetaAhorroDao metaAhorroDao;
+
+    @Autowired
+    private CuotaAhorroDao cuotaAhorroDao;
+
+    @Autowired
+    private MetaAhorroServiceImpl metaAhorroService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void detallesUsanLasMismasConsultasSinImportarLaCantidadDeMetas() throws Exception {
+        Usuario pocas = crearUsuario("pocas", 1);
+        Usuario muchas = crearUsuario("muchas", 20);
+
+        long sentenciasPocas = sentenciasDeLosDetalles(pocas);
+        long sentenciasMuchas = sentenciasDeLosDetalles(muchas);
+
+        // Metas, conteo por estado, próximas cuotas guardadas y cuotas virtuales adelantadas
+        assertEquals(4, sentenciasPocas);
+        assertEquals(sentenciasPocas, sentenciasMuchas);
+    }
+
+    @Test
+    void detallesCoincidenConLosDeCadaMeta() throws Exception {
+        Usuario usuario = crearUsuario("detalles", 1);
+        MetaAhorro virtual = metaAhorroDao.findByUsuarioId(usuario.getId()).stream()
+                .filter(MetaAhorro::isCuotasVirtuales).findFirst().orElseThrow();
+        metaAhorroService.pagarCuotaPorNumero(virtual.getId(), 1);
+        metaAhorroService.pagarCuotaPorNumero(virtual.getId(), 3);
+
+        mockMvc.perform(get("/api/v1/usuario-service/usuarios/{id}/metas-ahorro/detalles", usuario.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                // Meta con cuotas guardadas: 12 cuotas, la primera pagada
+                .andExpect(jsonPath("$[0].cuotasPagadas").value(1))
+                .andExpect(jsonPath("$[0].cuotasPendientes").value(11))
+                .andExpect(jsonPath("$[0].proximasCuotas.length()").value(5))
+                .andExpect(jsonPath("$[0].proximasCuotas[0].numeroCuota").value(2))
+                // Meta con cuotas virtuales: 1 y 3 pagadas, las próximas saltan la 3
+                .andExpect(jsonPath("$[1].cuotasPagadas").value(2))
+                .andExpect(jsonPath("$[1].cuotasPendientes").value(10))
+                .andExpect(jsonPath("$[1].montoAhorrado").value(200.0))
+                .andExpect(jsonPath("$[1].proximasCuotas[0].numeroCuota").value(2))
+                .andExpect(jsonPath("$[1].proximasCuotas[1].numeroCuota").value(4));
+
+        mockMvc.perform(get("/api/v1/usuario-service/metas-ahorro/{id}", virtual.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cuotasPagadas").value(2))
+                .andExpect(jsonPath("$.cuotasPendientes").value(10))
+                .andExpect(jsonPath("$.proximasCuotas[1].numeroCuota").value(4));
+    }
+
+    private long sentenciasDeLosDetalles(Usuario usuario) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/usuario-service/usuarios/{id}/metas-ahorro/detalles", usuario.getId()))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    // Por cada par, una meta anterior con sus 12 cuotas guardadas (la primera pagada) y una con cuotas virtuales
+    private Usuario crearUsuario(String username, int paresDeMetas) {
+        Usuario usuario = usuarioDao.save(DatosDePrueba.usuario(username));
+        for (int i = 0; i < paresDeMetas; i++) {
+            MetaAhorro registrada = DatosDePrueba.metaConCuotasGuardadas(usuario, "MENSUAL", 12, 10_000L);
+            registrada.setNombreMeta("Anterior " + i);
+            registrada.getCuotasRegistradas().get(0).setEstado("PAGADA");
+            metaAhorroDao.save(registrada);
+
+            metaAhorroService.crearMetaAhorro(usuario.getId(),
+                    new CrearMetaAhorroRequest("Virtual " + i, 1_200.0, 12, "MENSUAL", null));
+        }
+        return usuario;
+    }
+}
@@ -0,0 +1,110 @@
+package co.edu.uceva.celularservice.controller;
+
+import co.edu.uceva.celularservice.model.dao.UsuarioDao;
+import co.edu.uceva.celularservice.model.entities.Gasto;
+import co.edu.uceva.celularservice.model.entities.Ingreso;
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.service.DatosDePrueba;
+import co.edu.uceva.celularservice.model.service.ResumenUsuarioService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * El resumen financiero debe costar el mismo número de sentencias SQL sin importar
+ * cuántos ingresos y gastos tenga el usuario.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@WithMockUser
+class ResumenFinancieroQueryCountTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private ResumenUsuarioService resumenUsuarioService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void resumenUsaUnaSolaConsultaSinImportarLaCantidadDeMovimientos() throws Exception {
+        Usuario pocos = crearUsuario("pocos", 1);
+        Usuario muchos = crearUsuario("muchos", 200);
+
+        long sentenciasPocos = sentenciasDelResumen(pocos);
+        long sentenciasMuchos = sentenciasDelResumen(muchos);
+
+        assertEquals(1, sentenciasPocos);
+        assertEquals(sentenciasPocos, sentenciasMuchos);
+    }
+
+    @Test
+    void resumenCalculaTotalesYDesglose() throws Exception {
+        Usuario usuario = crearUsuario("desglose", 3);
+
+        mockMvc.perform(get("/api/v1/usuario-service/usuarios/{id}/resumen-financiero", usuario.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("desglose"))
+                // 3 fijos de 100 y 3 variables de 50; gastos de 10 fijos y 5 variables
+                .andExpect(jsonPath("$.totalIngresos").value(450.0))
+                .andExpect(jsonPath("$.ingresosFijos").value(300.0))
+                .andExpect(jsonPath("$.ingresosVariables").value(150.0))
+                .andExpect(jsonPath("$.totalGastos").value(45.0))
+                .andExpect(jsonPath("$.gastosFijos").value(30.0))
+                .andExpect(jsonPath("$.gastosVariables").value(15.0))
+                .andExpect(jsonPath("$.balance").value(405.0));
+    }
+
+    @Test
+    void resumenDeUsuarioInexistenteRetorna404() throws Exception {
+        mockMvc.perform(get("/api/v1/usuario-service/usuarios/{id}/resumen-financiero", 999999))
+                .andExpect(status().isNotFound());
+    }
+
+    private long sentenciasDelResumen(Usuario usuario) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get("/api/v1/usuario-service/usuarios/{id}/resumen-financiero", usuario.getId()))
+                .andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Usuario crearUsuario(String username, int movimientosPorTipo) {
+        Usuario usuario = DatosDePrueba.usuario(username);
+        for (int i = 0; i < movimientosPorTipo; i++) {
+            usuario.addIngreso(new Ingreso(null, "Salario " + i, 10_000L, "fijo", LocalDate.now(), null));
+            usuario.addIngreso(new Ingreso(null, "Extra " + i, 5_000L, "Variable", LocalDate.now(), null));
+            usuario.addGasto(new Gasto(null, "Arriendo " + i, 1_000L, "fijo", LocalDate.now(), null));
+            usuario.addGasto(new Gasto(null, "Comida " + i, 500L, "variable", LocalDate.now(), null));
+        }
+        usuario = usuarioDao.save(usuario);
+        // Los movimientos se guardaron en cascada, sin pasar por los servicios que mantienen el resumen
+        resumenUsuarioService.recalcularUsuario(usuario.getId());
+        return usuario;
+    }
+}
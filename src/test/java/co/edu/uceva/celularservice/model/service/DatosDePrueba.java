@@ -0,0 +1,54 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import co.edu.uceva.celularservice.model.util.CronogramaCuotas;
+
+import java.time.LocalDate;
+
+/**
+ * Entidades de prueba sin guardar; cada prueba las guarda con sus DAOs.
+ */
+public final class DatosDePrueba {
+
+    private DatosDePrueba() {
+    }
+
+    /**
+     * Usuario con rol USER, correo username@test.com y sin movimientos
+     */
+    public static Usuario usuario(String username) {
+        Usuario usuario = new Usuario();
+        usuario.setUsername(username);
+        usuario.setCorreo(username + "@test.com");
+        usuario.setPassword("hash");
+        usuario.setRol("USER");
+        return usuario;
+    }
+
+    /**
+     * Meta anterior al cronograma calculado: todas sus cuotas (pendientes, desde hoy) guardadas como filas
+     */
+    public static MetaAhorro metaConCuotasGuardadas(Usuario usuario, String frecuencia, int cuotas, long valorCuotaCentavos) {
+        CronogramaCuotas cronograma = new CronogramaCuotas(LocalDate.now(), frecuencia, cuotas, cuotas * valorCuotaCentavos);
+        MetaAhorro meta = new MetaAhorro();
+        meta.setNombreMeta("Anterior");
+        meta.setMontoObjetivoCentavos(cuotas * valorCuotaCentavos);
+        meta.setNumeroCuotas(cuotas);
+        meta.setValorCuotaCentavos(valorCuotaCentavos);
+        meta.setFrecuenciaCuota(frecuencia);
+        meta.setFechaInicio(LocalDate.now());
+        meta.setFechaFinEstimada(cronograma.fechaFin());
+        meta.setUsuario(usuario);
+        for (int numero = 1; numero <= cuotas; numero++) {
+            CuotaAhorro cuota = new CuotaAhorro();
+            cuota.setNumeroCuota(numero);
+            cuota.setMontoCuotaCentavos(valorCuotaCentavos);
+            cuota.setFechaProgramada(cronograma.fecha(numero));
+            cuota.setMetaAhorro(meta);
+            meta.getCuotasRegistradas().add(cuota);
+        }
+        return meta;
+    }
+}
@@ -0,0 +1,95 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.CelularServiceApplication;
+import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
+import co.edu.uceva.celularservice.model.dto.PagarCuotasRequest;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de crear una meta de 360 cuotas mensuales y pagarla completa de una vez (pago por monto).
+ * Con el cronograma calculado la meta es un solo INSERT y el pago guarda las 360 cuotas pagadas, que
+ * batchSize=50 agrupa en lotes JDBC frente a un viaje por cuota con batchSize=1.
+ * Ejecutar desde el IDE o con:
+ * mvn test-compile exec:java -Dexec.mainClass=co.edu.uceva.celularservice.model.service.MetaAhorroInsercionBenchmark -Dexec.classpathScope=test
+ * Por defecto usa H2 en memoria, donde no hay latencia de red; para medir contra PostgreSQL se pasan
+ * las propiedades spring.datasource.* como -D (el main las reenvía a la JVM del benchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetaAhorroInsercionBenchmark {
+
+    private static final int CUOTAS = 360;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext contexto;
+    private MetaAhorroServiceImpl metaAhorroService;
+    private CrearMetaAhorroRequest request;
+    private PagarCuotasRequest pago;
+
+    @Setup
+    public void setup() {
+        Map<String, String> propiedades = new LinkedHashMap<>();
+        propiedades.put("server.port", "0");
+        propiedades.put("spring.datasource.url", "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+        propiedades.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        propiedades.put("spring.datasource.username", "sa");
+        propiedades.put("spring.datasource.password", "");
+        propiedades.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        propiedades.put("spring.jpa.show-sql", "false");
+        propiedades.put("logging.level.root", "WARN");
+        // Los argumentos pisan application.properties; los -D recibidos pisan estos valores por defecto
+        List<String> argumentos = new ArrayList<>();
+        propiedades.forEach((clave, valor) -> argumentos.add("--" + clave + "=" + System.getProperty(clave, valor)));
+        argumentos.add("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+
+        contexto = new SpringApplicationBuilder(CelularServiceApplication.class).run(argumentos.toArray(new String[0]));
+        metaAhorroService = contexto.getBean(MetaAhorroServiceImpl.class);
+        request = new CrearMetaAhorroRequest("Casa", 360_000.0, CUOTAS, "MENSUAL", null);
+        pago = new PagarCuotasRequest(null, null, 360_000.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public MetaAhorro crearYPagarMeta() {
+        // Usuario 2 de los datos de ejemplo (import.sql)
+        MetaAhorro meta = metaAhorroService.crearMetaAhorro(2L, request);
+        return metaAhorroService.pagarCuotas(meta.getId(), pago);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        List<String> propiedades = new ArrayList<>();
+        System.getProperties().forEach((clave, valor) -> {
+            if (clave.toString().startsWith("spring.")) {
+                propiedades.add("-D" + clave + "=" + valor);
+            }
+        });
+        Options opciones = new OptionsBuilder()
+                .include(MetaAhorroInsercionBenchmark.class.getSimpleName())
+                .jvmArgsAppend(propiedades.toArray(new String[0]))
+                .build();
+        new Runner(opciones).run();
+    }
+}
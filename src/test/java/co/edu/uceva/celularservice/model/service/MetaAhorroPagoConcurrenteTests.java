@@ -0,0 +1,132 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.UsuarioDao;
+import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
+import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Varios hilos pagan a la vez todas las cuotas de una misma meta, cada cuota varias veces.
+ * Cada cuota debe quedar pagada una sola vez y el monto ahorrado debe sumar exactamente el objetivo
+ * (sin pagos dobles ni incrementos perdidos). El throughput se registra en debug; las mediciones están en los benchmarks JMH.
+ */
+@SpringBootTest
+class MetaAhorroPagoConcurrenteTests {
+
+    private static final Logger log = LoggerFactory.getLogger(MetaAhorroPagoConcurrenteTests.class);
+
+    private static final int HILOS = 8;
+    private static final int CUOTAS = 200;
+
+    @Autowired
+    private MetaAhorroServiceImpl metaAhorroService;
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private MetaAhorroDao metaAhorroDao;
+
+    @Autowired
+    private CuotaAhorroDao cuotaAhorroDao;
+
+    @Test
+    void pagosConcurrentesDeCuotasVirtuales() throws Exception {
+        Usuario usuario = crearUsuario("virtuales");
+        MetaAhorro meta = metaAhorroService.crearMetaAhorro(usuario.getId(),
+                new CrearMetaAhorroRequest("Virtual", 1_000.0, CUOTAS, "SEMANAL", null));
+        List<Integer> numeros = new ArrayList<>();
+        for (int numero = 1; numero <= CUOTAS; numero++) {
+            numeros.add(numero);
+        }
+
+        Long metaId = meta.getId();
+        pagarEnParalelo("virtuales", metaId, numeros, numero -> metaAhorroService.pagarCuotaPorNumero(metaId, numero));
+
+        assertEquals(CUOTAS, cuotaAhorroDao.findByMetaAhorroId(meta.getId()).size());
+    }
+
+    @Test
+    void pagosConcurrentesDeCuotasGuardadas() throws Exception {
+        MetaAhorro meta = metaAhorroDao.save(
+                DatosDePrueba.metaConCuotasGuardadas(crearUsuario("guardadas"), "SEMANAL", CUOTAS, 500L));
+        List<Long> cuotaIds = meta.getCuotasRegistradas().stream().map(CuotaAhorro::getId).toList();
+
+        Long metaId = meta.getId();
+        pagarEnParalelo("guardadas", metaId, cuotaIds, cuotaId -> metaAhorroService.pagarCuota(metaId, cuotaId));
+
+        assertEquals(CUOTAS, cuotaAhorroDao.findByMetaAhorroIdAndEstado(meta.getId(), "PAGADA").size());
+    }
+
+    // Cada hilo intenta pagar todas las cuotas en un orden distinto
+    private <T> void pagarEnParalelo(String caso, Long metaId, List<T> cuotas, Consumer<T> pagar) throws Exception {
+        AtomicInteger pagadas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        Queue<String> errores = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(HILOS);
+        for (int h = 0; h < HILOS; h++) {
+            List<T> orden = new ArrayList<>(cuotas);
+            Collections.shuffle(orden, new Random(h));
+            hilos.submit(() -> {
+                salida.await();
+                for (T cuota : orden) {
+                    try {
+                        pagar.accept(cuota);
+                        pagadas.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        if ("La cuota ya fue pagada".equals(e.getMessage())) {
+                            rechazadas.incrementAndGet();
+                        } else {
+                            errores.add(e.toString());
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+
+        long inicio = System.nanoTime();
+        salida.countDown();
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(2, TimeUnit.MINUTES));
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        log.debug("Pagos concurrentes ({}): {} hilos, {} intentos, {} pagadas, {} intentos/s",
+                caso, HILOS, HILOS * cuotas.size(), pagadas.get(), Math.round(HILOS * cuotas.size() / segundos));
+
+        assertTrue(errores.isEmpty(), () -> "Errores inesperados: " + errores);
+        assertEquals(cuotas.size(), pagadas.get());
+        assertEquals((HILOS - 1) * cuotas.size(), rechazadas.get());
+        MetaAhorro meta = metaAhorroDao.findById(metaId).orElseThrow();
+        assertEquals(meta.getMontoObjetivoCentavos(), meta.getMontoAhorradoCentavos());
+        assertEquals("COMPLETADA", meta.getEstado());
+    }
+
+    private Usuario crearUsuario(String username) {
+        return usuarioDao.save(DatosDePrueba.usuario(username));
+    }
+}
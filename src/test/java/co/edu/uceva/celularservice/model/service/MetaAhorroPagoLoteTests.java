@@ -0,0 +1,184 @@
+package co.edu.uceva.celularservice.model.service;
+
+import co.edu.uceva.celularservice.model.dao.CuotaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.MetaAhorroDao;
+import co.edu.uceva.celularservice.model.dao.UsuarioDao;
+import co.edu.uceva.celularservice.model.dto.CrearMetaAhorroRequest;
+import co.edu.uceva.celularservice.model.dto.PagarCuotasRequest;
+import co.edu.uceva.celularservice.model.entities.CuotaAhorro;
+import co.edu.uceva.celularservice.model.entities.MetaAhorro;
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pago de varias cuotas en una sola transacción: por id, por número o por monto, en metas con cuotas
+ * guardadas y con cuotas virtuales. Si alguna cuota no se puede pagar no se paga ninguna.
+ */
+@SpringBootTest
+class MetaAhorroPagoLoteTests {
+
+    private static final AtomicInteger USUARIOS = new AtomicInteger();
+
+    @Autowired
+    private MetaAhorroServiceImpl metaAhorroService;
+
+    @Autowired
+    private UsuarioDao usuarioDao;
+
+    @Autowired
+    private MetaAhorroDao metaAhorroDao;
+
+    @Autowired
+    private CuotaAhorroDao cuotaAhorroDao;
+
+    @Test
+    void pagaCuotasGuardadasPorIdYPorNumero() {
+        MetaAhorro meta = crearMetaGuardada(10);
+        List<Long> ids = idsPorNumero(meta);
+
+        metaAhorroService.pagarCuotas(meta.getId(), new PagarCuotasRequest(List.of(ids.get(0), ids.get(1), ids.get(1)), null, null));
+        metaAhorroService.pagarCuotas(meta.getId(), new PagarCuotasRequest(null, List.of(3, 4, 3), null));
+
+        assertPagadas(meta.getId(), 4, 4_000L);
+    }
+
+    @Test
+    void pagaCuotasVirtualesPorNumeroSinRepetir() {
+        MetaAhorro meta = crearMetaVirtual(3); // 33.34, 33.33 y 33.33
+
+        metaAhorroService.pagarCuotas(meta.getId(), new PagarCuotasRequest(null, List.of(2, 3, 2), null));
+
+        assertPagadas(meta.getId(), 2, 6_666L);
+    }
+
+    @Test
+    void montoPagaLasPrimerasCuotasQueCubreCompletas() {
+        MetaAhorro virtual = crearMetaVirtual(3);
+        metaAhorroService.pagarCuotas(virtual.getId(), new PagarCuotasRequest(null, null, 70.0));
+        assertPagadas(virtual.getId(), 2, 6_667L);
+
+        MetaAhorro guardada = crearMetaGuardada(10);
+        metaAhorroService.pagarCuotaPorNumero(guardada.getId(), 1);
+        metaAhorroService.pagarCuotas(guardada.getId(), new PagarCuotasRequest(null, null, 35.0));
+        assertPagadas(guardada.getId(), 4, 4_000L);
+        assertEquals(List.of(1, 2, 3, 4), cuotaAhorroDao.findByMetaAhorroIdAndEstado(guardada.getId(), "PAGADA").stream()
+                .map(CuotaAhorro::getNumeroCuota).sorted().toList());
+    }
+
+    @Test
+    void montoQueNoCubreNingunaCuotaNoPagaNada() {
+        MetaAhorro virtual = crearMetaVirtual(3);
+        MetaAhorro guardada = crearMetaGuardada(10);
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> metaAhorroService.pagarCuotas(virtual.getId(), new PagarCuotasRequest(null, null, 33.0)));
+        assertEquals("El monto no alcanza para pagar la siguiente cuota", error.getMessage());
+        assertThrows(RuntimeException.class,
+                () -> metaAhorroService.pagarCuotas(guardada.getId(), new PagarCuotasRequest(null, null, 9.99)));
+
+        assertPagadas(virtual.getId(), 0, 0L);
+        assertPagadas(guardada.getId(), 0, 0L);
+    }
+
+    @Test
+    void siUnaCuotaYaEstabaPagadaNoSePagaNinguna() {
+        MetaAhorro virtual = crearMetaVirtual(5);
+        metaAhorroService.pagarCuotaPorNumero(virtual.getId(), 3);
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> metaAhorroService.pagarCuotas(virtual.getId(), new PagarCuotasRequest(null, List.of(1, 2, 3), null)));
+        assertEquals("La cuota ya fue pagada", error.getMessage());
+        assertPagadas(virtual.getId(), 1, 2_000L);
+
+        MetaAhorro guardada = crearMetaGuardada(5);
+        List<Long> ids = idsPorNumero(guardada);
+        metaAhorroService.pagarCuota(guardada.getId(), ids.get(2));
+        assertThrows(RuntimeException.class,
+                () -> metaAhorroService.pagarCuotas(guardada.getId(), new PagarCuotasRequest(ids.subList(0, 3), null, null)));
+        assertPagadas(guardada.getId(), 1, 1_000L);
+    }
+
+    @Test
+    void lotesConcurrentesQueSeSolapanPaganUnaSolaVez() throws Exception {
+        for (int ronda = 0; ronda < 10; ronda++) {
+            pagarLotesSolapados(crearMetaVirtual(20));
+            pagarLotesSolapados(crearMetaGuardada(20));
+        }
+    }
+
+    // Dos lotes a la vez, 1-10 y 6-15: comparten cinco cuotas, así que uno solo se paga completo y el otro nada
+    private void pagarLotesSolapados(MetaAhorro meta) throws Exception {
+        List<List<Integer>> lotes = List.of(
+                IntStream.rangeClosed(1, 10).boxed().toList(),
+                IntStream.rangeClosed(6, 15).boxed().toList());
+        AtomicInteger exitosos = new AtomicInteger();
+        Queue<String> errores = new ConcurrentLinkedQueue<>();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService hilos = Executors.newFixedThreadPool(lotes.size());
+        for (List<Integer> lote : lotes) {
+            hilos.submit(() -> {
+                salida.await();
+                try {
+                    metaAhorroService.pagarCuotas(meta.getId(), new PagarCuotasRequest(null, lote, null));
+                    exitosos.incrementAndGet();
+                } catch (RuntimeException e) {
+                    if (!e.getMessage().contains("ya fue pagada")) {
+                        errores.add(e.toString());
+                    }
+                }
+                return null;
+            });
+        }
+        salida.countDown();
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertTrue(errores.isEmpty(), () -> "Errores inesperados: " + errores);
+        assertEquals(1, exitosos.get());
+        long valorCuota = meta.isCuotasVirtuales() ? 2_000L : 1_000L;
+        assertPagadas(meta.getId(), 10, 10 * valorCuota);
+    }
+
+    private void assertPagadas(Long metaId, int cuotas, long montoAhorrado) {
+        assertEquals(cuotas, cuotaAhorroDao.findByMetaAhorroIdAndEstado(metaId, "PAGADA").size());
+        assertEquals(montoAhorrado, metaAhorroDao.findById(metaId).orElseThrow().getMontoAhorradoCentavos());
+    }
+
+    // Meta con cuotas virtuales semanales de 20.00 (salvo el redondeo de la de 3 cuotas)
+    private MetaAhorro crearMetaVirtual(int cuotas) {
+        double objetivo = cuotas == 3 ? 100.0 : cuotas * 20.0;
+        return metaAhorroService.crearMetaAhorro(crearUsuario().getId(),
+                new CrearMetaAhorroRequest("Virtual", objetivo, cuotas, "SEMANAL", null));
+    }
+
+    // Meta anterior con sus cuotas semanales de 10.00 guardadas
+    private MetaAhorro crearMetaGuardada(int cuotas) {
+        return metaAhorroDao.save(DatosDePrueba.metaConCuotasGuardadas(crearUsuario(), "SEMANAL", cuotas, 1_000L));
+    }
+
+    private List<Long> idsPorNumero(MetaAhorro meta) {
+        List<Long> ids = new ArrayList<>();
+        meta.getCuotasRegistradas().forEach(c -> ids.add(c.getId()));
+        return ids;
+    }
+
+    private Usuario crearUsuario() {
+        return usuarioDao.save(DatosDePrueba.usuario("lote" + USUARIOS.incrementAndGet()));
+    }
+}
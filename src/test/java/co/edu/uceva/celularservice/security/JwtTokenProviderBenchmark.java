@@ -0,0 +1,77 @@
+package co.edu.uceva.celularservice.security;
+
+import co.edu.uceva.celularservice.model.entities.Usuario;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de emisión y verificación de tokens con la clave y el parser construidos una sola vez.
+ * Ejecutar desde el IDE o con:
+ * mvn test-compile exec:java -Dexec.mainClass=co.edu.uceva.celularservice.security.JwtTokenProviderBenchmark -Dexec.classpathScope=test
+ * El GCProfiler reporta los bytes asignados por operación (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"false", "true"})
+    private boolean selfContained;
+
+    private JwtTokenProvider tokenProvider;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "MySecretKeyForJWTTokenGenerationThatNeedsToBeAtLeast256BitsLongForHS256Algorithm");
+        ReflectionTestUtils.setField(tokenProvider, "jwtKid", "k2");
+        ReflectionTestUtils.setField(tokenProvider, "previousKeys",
+                "k1:PreviousSecretKeyForJWTTokenGenerationThatNeedsToBeAtLeast256BitsLongForHS256");
+        ReflectionTestUtils.setField(tokenProvider, "keysFile", "");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", 300000L);
+        ReflectionTestUtils.setField(tokenProvider, "selfContained", selfContained);
+        tokenProvider.init();
+
+        usuario = new Usuario();
+        usuario.setId(2L);
+        usuario.setUsername("juan");
+        usuario.setCorreo("juan@gmail.com");
+        usuario.setRol("USER");
+        usuario.setTokenVersion(0);
+
+        token = tokenProvider.generateToken(usuario);
+    }
+
+    @Benchmark
+    public String emitir() {
+        return tokenProvider.generateToken(usuario);
+    }
+
+    @Benchmark
+    public Claims verificar() {
+        return tokenProvider.getValidClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opciones = new OptionsBuilder()
+                .include(JwtTokenProviderBenchmark.class.getSimpleName())
+                .threads(Runtime.getRuntime().availableProcessors())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
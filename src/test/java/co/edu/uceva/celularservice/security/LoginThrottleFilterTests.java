@@ -0,0 +1,96 @@
+package co.edu.uceva.celularservice.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Los intentos de login y registro que superan el límite por IP o por username se rechazan
+ * con 429 y Retry-After antes de llegar al hashing de contraseñas.
+ */
+@SpringBootTest(properties = {
+        "app.security.login-throttle.ip.capacity=3",
+        "app.security.login-throttle.ip.per-minute=1",
+        "app.security.login-throttle.username.capacity=2",
+        "app.security.login-throttle.username.per-minute=1"
+})
+@AutoConfigureMockMvc
+class LoginThrottleFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void limitaPorUsernameSinHashear() throws Exception {
+        String registro = "{\"username\":\"Ana\",\"correo\":\"ana@test.com\",\"password\":\"secreto\"}";
+        intento("/api/v1/auth/register", "10.0.1.1", registro).andExpect(status().isCreated());
+        // Mismo username (sin distinguir mayúsculas) desde otra IP: pasa y falla por duplicado
+        intento("/api/v1/auth/register", "10.0.1.2", registro.replace("Ana", "ana"))
+                .andExpect(status().isBadRequest());
+        verify(passwordEncoder, times(2)).encode(any());
+
+        clearInvocations(passwordEncoder);
+        intento("/api/v1/auth/login", "10.0.1.3", "{\"username\":\"ana\",\"password\":\"otro\"}")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    @Test
+    void limitaPorIpSinHashear() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            intento("/api/v1/auth/register", "10.0.2.1",
+                    "{\"username\":\"ip" + i + "\",\"correo\":\"ip" + i + "@test.com\",\"password\":\"secreto\"}")
+                    .andExpect(r -> assertNotEquals(429, r.getResponse().getStatus()));
+        }
+
+        clearInvocations(passwordEncoder);
+        intento("/api/v1/auth/register", "10.0.2.1",
+                "{\"username\":\"ip3\",\"correo\":\"ip3@test.com\",\"password\":\"secreto\"}")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+        verifyNoInteractions(passwordEncoder);
+
+        // Otra IP no comparte el límite
+        intento("/api/v1/auth/register", "10.0.2.2",
+                "{\"username\":\"ip3\",\"correo\":\"ip3@test.com\",\"password\":\"secreto\"}")
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void rechazaCuerposGrandesSinLeerlos() throws Exception {
+        String grande = "{\"username\":\"grande\",\"password\":\"" + "x".repeat(10_000) + "\"}";
+        intento("/api/v1/auth/login", "10.0.3.1", grande).andExpect(status().isPayloadTooLarge());
+        verifyNoInteractions(passwordEncoder);
+    }
+
+    private ResultActions intento(String ruta, String ip, String body) throws Exception {
+        return mockMvc.perform(post(ruta)
+                .servletPath(ruta)
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body));
+    }
+}